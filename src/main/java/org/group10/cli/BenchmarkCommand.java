@@ -3,7 +3,6 @@ package org.group10.cli;
 import org.group10.crossover.Crossover;
 import org.group10.crossover.RawProgramCrossover;
 import org.group10.fitness.FitnessFunction;
-import org.group10.fitness.WeightedFitnessFunction;
 import org.group10.mutator.BinaryExprModifiableMutator;
 import org.group10.mutator.ClassicGenProgMutator;
 import org.group10.mutator.Mutator;
@@ -53,6 +52,9 @@ public class BenchmarkCommand implements Callable<Integer> {
     private boolean alsoMutateBinaryExprs;
     @CommandLine.Option(names = {"-out", "--output_dir"})
     private String outputDir;
+    @CommandLine.Mixin
+    private EvaluationOptions evaluationOptions;
+    private ClassicGenProgAlgorithm genProgAlgorithm;
 
     private void setupBenchmarkTargetMap() {
         benchmarkTargetMap.put(
@@ -110,13 +112,10 @@ public class BenchmarkCommand implements Callable<Integer> {
         return new OchiaiSuspiciousCalculator();
     }
 
-    private FitnessFunction<Program> setupWeightedFitnessFunction(double positiveWeight, double negativeWeight) {
-        return new WeightedFitnessFunction(positiveWeight, negativeWeight);
-    }
-
     private Program setupInitialProgram(String dirPath, String className, Mutator<Program> mutator, Crossover<Program> crossover, SuspiciousCalculator suspiciousCalculator, FitnessFunction<Program> fitnessFunction) {
         try {
             Program program = new Program(dirPath, className, mutator, crossover, suspiciousCalculator, fitnessFunction);
+            evaluationOptions.setupTestSuite(program);
             program.executeTestSuiteWithLog();
             program.getFitness();
             program.getSuspiciousScore();
@@ -139,11 +138,22 @@ public class BenchmarkCommand implements Callable<Integer> {
     }
 
     private SearchAlgorithm<Program> setupSearchAlgorithm(int populationSize, int maxGeneration, double mutationWeight, Selection<Program> selector) {
-        return new ClassicGenProgAlgorithm(populationSize, maxGeneration, mutationWeight, selector);
+        ClassicGenProgAlgorithm searchAlgorithm = new ClassicGenProgAlgorithm(populationSize, maxGeneration, mutationWeight, selector);
+        evaluationOptions.setupSearchAlgorithm(searchAlgorithm);
+        genProgAlgorithm = searchAlgorithm;
+        return searchAlgorithm;
     }
 
     @Override
     public Integer call() {
+        try {
+            return benchmark();
+        } finally {
+            evaluationOptions.close();
+        }
+    }
+
+    private Integer benchmark() {
         setupBenchmarkTargetMap();
         if (!benchmarkTargetMap.containsKey(benchmarkTarget)) {
             System.err.println("Error: benchmark target not defined");
@@ -165,8 +175,7 @@ public class BenchmarkCommand implements Callable<Integer> {
             default -> setupOchiaiSuspiciousCalculator();
         };
 
-        FitnessFunction<Program> fitnessFunction =
-                setupWeightedFitnessFunction(positiveWeight, negativeWeight);
+        FitnessFunction<Program> fitnessFunction = evaluationOptions.setupFitnessFunction(positiveWeight, negativeWeight);
 
         String dirPath = benchmarkTargetMap.get(benchmarkTarget).getKey();
         String classname = benchmarkTargetMap.get(benchmarkTarget).getValue();
@@ -256,6 +265,8 @@ public class BenchmarkCommand implements Callable<Integer> {
         if (successCount > 0) {
             System.out.println("Median time (success): " + successMedian + "ms");
         }
+        System.out.println("Evaluation time per generation: " + genProgAlgorithm.getEvaluationSummary());
+        evaluationOptions.printSummary(initialProgram);
         System.out.println("=====================================================================");
 
         if (outputDir != null) {
@@ -0,0 +1,166 @@
+package org.group10.cli;
+
+import org.group10.fitness.FitnessFunction;
+import org.group10.fitness.SampledFitnessFunction;
+import org.group10.fitness.WeightedFitnessFunction;
+import org.group10.program.Program;
+import org.group10.searchalgorithm.ClassicGenProgAlgorithm;
+import org.group10.testsuite.EarlyTermination;
+import org.group10.testsuite.ReflectiveTestRunner;
+import org.group10.testsuite.TestScheduler;
+import org.group10.testsuite.TestSuite;
+import org.group10.testsuite.TestWorkerPool;
+import org.group10.utils.compiler.CompileExecutor;
+import org.group10.utils.compiler.CompilerService;
+import org.group10.utils.compiler.IncrementalCompiler;
+import org.group10.utils.compiler.SyntacticPreScreen;
+import org.group10.utils.instrument.SharedClassLoader;
+import org.group10.utils.instrument.SharedStateDetector;
+import picocli.CommandLine;
+
+import java.io.IOException;
+
+/**
+ * The options shared by the {@link RepairCommand} and the {@link BenchmarkCommand} on how the
+ * programs are compiled and their tests executed, mixed into both commands. <br>
+ *
+ * It owns the {@link CompileExecutor} and the {@link TestWorkerPool} it creates, see {@link #close()}.
+ */
+class EvaluationOptions implements AutoCloseable {
+    @CommandLine.Option(names = {"--cache_dir"})
+    private String cacheDir;
+    @CommandLine.Option(names = {"--compile_batch"}, defaultValue = "20")
+    private int compileBatchSize;
+    @CommandLine.Option(names = {"--compile_workers"}, defaultValue = "0")
+    private int compileWorkers;
+    @CommandLine.Option(names = {"--test_workers"}, defaultValue = "1")
+    private int testWorkers;
+    @CommandLine.Option(names = {"--worker_jvms"}, defaultValue = "0")
+    private int workerJvms;
+    @CommandLine.Option(names = {"--worker_jvm_uses"}, defaultValue = "500")
+    private int workerJvmUses;
+    @CommandLine.Option(names = {"--tick_budget_factor"}, defaultValue = "0")
+    private double tickBudgetFactor;
+    @CommandLine.Option(names = {"--allocation_budget_factor"}, defaultValue = "0")
+    private double allocationBudgetFactor;
+    @CommandLine.Option(names = {"--test_timeout"}, defaultValue = "0")
+    private long testTimeout;
+    @CommandLine.Option(names = {"--negative_tests_first"}, defaultValue = "false")
+    private boolean negativeTestsFirst;
+    @CommandLine.Option(names = {"--sample_rate"}, defaultValue = "0")
+    private double sampleRate;
+    @CommandLine.Option(names = {"--test_selection"}, defaultValue = "false")
+    private boolean testSelection;
+    @CommandLine.Option(names = {"--verify_test_selection"}, defaultValue = "false")
+    private boolean verifyTestSelection;
+    @CommandLine.Option(names = {"--fail_fast_order"}, defaultValue = "false")
+    private boolean failFastOrder;
+    @CommandLine.Option(names = {"--persist_test_statistics"}, defaultValue = "false")
+    private boolean persistTestStatistics;
+    @CommandLine.Option(names = {"--fresh_launcher"}, defaultValue = "false")
+    private boolean freshLauncher;
+    private CompileExecutor compileExecutor;
+    private TestWorkerPool workerPool;
+
+    /**
+     * Creates the fitness function of the search, the sampled one if a sample rate is set.
+     *
+     * @param positiveWeight the weight of a passing positive test
+     * @param negativeWeight the weight of a passing negative test
+     * @return the fitness function
+     */
+    FitnessFunction<Program> setupFitnessFunction(double positiveWeight, double negativeWeight) {
+        if (sampleRate > 0) {
+            return new SampledFitnessFunction(positiveWeight, negativeWeight, sampleRate);
+        }
+        return new WeightedFitnessFunction(positiveWeight, negativeWeight);
+    }
+
+    /**
+     * Configures how the tests of the original program, and of all the programs derived from it,
+     * are executed.
+     *
+     * @param program the original program, before its tests are executed
+     */
+    void setupTestSuite(Program program) {
+        TestSuite testSuite = program.getTestSuite();
+        if (cacheDir != null) {
+            testSuite.setCacheDirectory(cacheDir);
+        }
+        testSuite.setTestWorkers(testWorkers);
+        testSuite.setTestBudget(tickBudgetFactor, testTimeout);
+        testSuite.setAllocationBudget(allocationBudgetFactor);
+        if (negativeTestsFirst && program.getFitnessFunction() instanceof EarlyTermination earlyTermination) {
+            testSuite.setEarlyTermination(earlyTermination);
+        }
+        testSuite.setRegressionTestSelection(testSelection || verifyTestSelection, verifyTestSelection);
+        testSuite.setTestScheduling(failFastOrder, persistTestStatistics);
+        testSuite.setLauncherReuse(!freshLauncher);
+        if (workerJvms > 0) {
+            if (workerPool == null) {
+                workerPool = new TestWorkerPool(workerJvms, workerJvmUses, testWorkers);
+            }
+            testSuite.setWorkerPool(workerPool);
+        }
+    }
+
+    /**
+     * Configures how the search compiles the programs.
+     *
+     * @param searchAlgorithm the search algorithm
+     */
+    void setupSearchAlgorithm(ClassicGenProgAlgorithm searchAlgorithm) {
+        searchAlgorithm.setCompileBatchSize(compileBatchSize);
+        if (compileExecutor == null) {
+            compileExecutor = new CompileExecutor(compileWorkers);
+        }
+        searchAlgorithm.setCompileExecutor(compileExecutor);
+    }
+
+    /**
+     * Prints the statistics of the compilation and of the test executions of a search, and saves
+     * the test statistics (see {@link TestSuite#saveTestStatistics()}).
+     *
+     * @param initialProgram the original program of the search
+     */
+    void printSummary(Program initialProgram) {
+        TestSuite testSuite = initialProgram.getTestSuite();
+        System.out.println("Evaluation cache: " + testSuite.getCache());
+        System.out.println("Bytecode cache: " + testSuite.getBytecodeCache());
+        System.out.println("Compiler: " + CompilerService.getInstance());
+        System.out.println("Compile executor: " + compileExecutor);
+        System.out.println("Pre-screen: " + SyntacticPreScreen.getSummary());
+        System.out.println("Incremental compilation: " + IncrementalCompiler.getSummary());
+        System.out.println("Compiled test classes: " + testSuite.getTestClassesSummary());
+        System.out.println("Test runner: " + ReflectiveTestRunner.getSummary());
+        System.out.println("Shared state: " + SharedStateDetector.getSummary());
+        System.out.println("Shared class loader: " + SharedClassLoader.getSummary());
+        System.out.println("Early termination: " + testSuite.getEarlyTerminationSummary());
+        System.out.println("Test selection: " + testSuite.getTestSelectionSummary());
+        System.out.println("Timeouts: " + testSuite.getTimeoutSummary());
+        System.out.println("Worker JVMs: " + (workerPool != null ? workerPool : "disabled"));
+        TestScheduler testScheduler = testSuite.getTestScheduler();
+        System.out.println("Launcher sessions: " + testSuite.getLauncherSessions());
+        System.out.println("Test scheduler: " + (testScheduler != null ? testScheduler : "disabled"));
+        try {
+            testSuite.saveTestStatistics();
+        } catch (IOException e) {
+            System.err.println("Fail to save the test statistics: " + e.getMessage());
+        }
+        System.out.println("Sampled fitness: " + (initialProgram.getFitnessFunction() instanceof SampledFitnessFunction sampled
+                ? sampled.getSummary() : "disabled"));
+    }
+
+    /**
+     * Shuts down the compile executor and the worker JVMs, if they were created.
+     */
+    @Override
+    public void close() {
+        if (compileExecutor != null) {
+            compileExecutor.close();
+        }
+        if (workerPool != null) {
+            workerPool.close();
+        }
+    }
+}
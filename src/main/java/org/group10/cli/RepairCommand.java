@@ -3,7 +3,6 @@ package org.group10.cli;
 import org.group10.crossover.Crossover;
 import org.group10.crossover.RawProgramCrossover;
 import org.group10.fitness.FitnessFunction;
-import org.group10.fitness.WeightedFitnessFunction;
 import org.group10.mutator.BinaryExprModifiableMutator;
 import org.group10.mutator.ClassicGenProgMutator;
 import org.group10.mutator.Mutator;
@@ -59,6 +58,9 @@ public class RepairCommand implements Callable<Integer> {
     @CommandLine.Option(names = {"-out", "--output_dir"})
     private String outputDir;
 
+    @CommandLine.Mixin
+    private EvaluationOptions evaluationOptions;
+
     private Mutator<Program> setupClassicMutator(boolean canGetFixFromDifferentClasses) {
         ClassicGenProgMutator mutator = new ClassicGenProgMutator();
         mutator.setCanGetFixFromDifferentClass(canGetFixFromDifferentClasses);
@@ -83,13 +85,10 @@ public class RepairCommand implements Callable<Integer> {
         return new OchiaiSuspiciousCalculator();
     }
 
-    private FitnessFunction<Program> setupWeightedFitnessFunction(double positiveWeight, double negativeWeight) {
-        return new WeightedFitnessFunction(positiveWeight, negativeWeight);
-    }
-
     private Program setupInitialProgram(String dirPath, String className, Mutator<Program> mutator, Crossover<Program> crossover, SuspiciousCalculator suspiciousCalculator, FitnessFunction<Program> fitnessFunction) {
         try {
             Program program = new Program(dirPath, className, mutator, crossover, suspiciousCalculator, fitnessFunction);
+            evaluationOptions.setupTestSuite(program);
             program.executeTestSuiteWithLog();
             program.getFitness();
             program.getSuspiciousScore();
@@ -112,11 +111,21 @@ public class RepairCommand implements Callable<Integer> {
     }
 
     private SearchAlgorithm<Program> setupSearchAlgorithm(int populationSize, int maxGeneration, double mutationWeight, Selection<Program> selector) {
-        return new ClassicGenProgAlgorithm(populationSize, maxGeneration, mutationWeight, selector);
+        ClassicGenProgAlgorithm searchAlgorithm = new ClassicGenProgAlgorithm(populationSize, maxGeneration, mutationWeight, selector);
+        evaluationOptions.setupSearchAlgorithm(searchAlgorithm);
+        return searchAlgorithm;
     }
 
     @Override
     public Integer call() {
+        try {
+            return repair();
+        } finally {
+            evaluationOptions.close();
+        }
+    }
+
+    private Integer repair() {
         Mutator<Program> mutator;
         if (alsoMutateBinaryExprs) {
             mutator = setupBinaryExprModifiableMutator(canGetFixFromDifferentClasses);
@@ -132,8 +141,7 @@ public class RepairCommand implements Callable<Integer> {
             default -> setupOchiaiSuspiciousCalculator();
         };
 
-        FitnessFunction<Program> fitnessFunction =
-                setupWeightedFitnessFunction(positiveWeight, negativeWeight);
+        FitnessFunction<Program> fitnessFunction = evaluationOptions.setupFitnessFunction(positiveWeight, negativeWeight);
 
         Program initialProgram =
                 setupInitialProgram(dirPath, classname,
@@ -161,6 +169,7 @@ public class RepairCommand implements Callable<Integer> {
 
         System.out.printf("Elapsed time: %.2f ms%n",
                 (end - start) / 1_000_000.0);
+        evaluationOptions.printSummary(initialProgram);
 
         if (outputDir != null) {
             try {
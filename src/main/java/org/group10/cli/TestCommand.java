@@ -25,6 +25,7 @@ public class TestCommand implements Callable<Integer> {
         try {
             Program program = new Program(dirPath, classname, new ClassicGenProgMutator(), new RawProgramCrossover(), new TarantulaSuspiciousCalculator(), new WeightedFitnessFunction(1.0, 1.0));
             program.executeTestSuiteWithLog();
+            System.out.println("Test budget: " + program.getTestSuite().getTimeoutSummary());
         } catch (Exception e) {
             System.err.println(e.getMessage());
             return 1;
@@ -24,4 +24,14 @@ public interface FitnessFunction<T> {
      * {@code false} if it is otherwise
      */
     boolean isAtMaxValue(T target);
+
+    /**
+     * Notifies the fitness function that the search starts a new generation, so a
+     * fitness function depending on the generation (e.g., evaluating a sample of the
+     * tests) can update itself. Does nothing by default.
+     *
+     * @param generation the index of the generation, starting from 0
+     */
+    default void startGeneration(int generation) {
+    }
 }
@@ -0,0 +1,205 @@
+package org.group10.fitness;
+
+import org.group10.program.Program;
+import org.group10.testsuite.TestResult;
+import org.group10.utils.Randomness;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fitness function that evaluates {@link Program} instances on a sample of the tests,
+ * as the sampled fitness of the original GenProg. <br>
+ *
+ * The sample holds every negative test, and a random sample of the positive tests, drawn
+ * again at every generation (see {@link #startGeneration(int)}). A program is scored on
+ * the sample with the same weights as the {@link WeightedFitnessFunction}, and only the
+ * programs passing the whole sample are validated with the whole test suite, their
+ * fitness being then the fitness computed by the {@link WeightedFitnessFunction}. <br>
+ *
+ * NOTE: the first evaluated program is the original program, and is always evaluated
+ * with the whole test suite, so its positive and negative tests are known. <br>
+ *
+ * If a non-compilable program get evaluated, its fitness score will be 0. <br>
+ *
+ * The function is safe to use from many threads at once. The sampled fitness of a source
+ * code is memoized until the next generation.
+ */
+public class SampledFitnessFunction implements FitnessFunction<Program> {
+    /**
+     * Default fraction of the positive tests in the sample.
+     */
+    public static final double DEFAULT_SAMPLE_RATE = 0.1;
+
+    private final double sampleRate;
+    private final WeightedFitnessFunction fullFitnessFunction;
+    private final Map<List<String>, SampledScore> sampledScores = new ConcurrentHashMap<>();
+    private final AtomicLong sampledEvaluationCount = new AtomicLong();
+    private final AtomicLong fullValidationCount = new AtomicLong();
+    private volatile Set<String> sampledTests;
+
+    /**
+     * Creates an instance of {@link SampledFitnessFunction} with the given test weights.
+     *
+     * @param positiveTestWeight weight applied to positive tests
+     * @param negativeTestWeight weight applied negative tests
+     * @param sampleRate the fraction of the positive tests in the sample, at least one
+     *                   positive test being sampled; {@link #DEFAULT_SAMPLE_RATE} if non-positive
+     */
+    public SampledFitnessFunction(double positiveTestWeight, double negativeTestWeight, double sampleRate) {
+        this.fullFitnessFunction = new WeightedFitnessFunction(positiveTestWeight, negativeTestWeight);
+        this.sampleRate = sampleRate > 0 ? Math.min(sampleRate, 1) : DEFAULT_SAMPLE_RATE;
+    }
+
+    /**
+     * Calculates the fitness of the given program on the sample of the tests. <br>
+     *
+     * A program passing every sampled test is validated with the whole test suite, and
+     * gets the fitness computed by the {@link WeightedFitnessFunction}.
+     *
+     * @param target the program to evaluate
+     * @return the calculated fitness value, or {@code 0} if evaluation fails
+     */
+    @Override
+    public double calculateFitness(Program target) {
+        Program originalProgram = fullFitnessFunction.getOriginalProgram();
+        if (originalProgram == null || originalProgram == target) {
+            return fullFitnessFunction.calculateFitness(target);
+        }
+
+        SampledScore score = getSampledScore(target, originalProgram);
+        if (score.promising()) {
+            return fullFitnessFunction.calculateFitness(target);
+        }
+        return score.fitness();
+    }
+
+    /**
+     * Determines whether the given program has achieved the maximum possible
+     * fitness. <br>
+     *
+     * Only the programs passing every sampled test are checked with the whole test suite.
+     *
+     * @param target the program being evaluated
+     * @return {@code true} if the program passes all the tests;
+     *         {@code false} otherwise
+     */
+    @Override
+    public boolean isAtMaxValue(Program target) {
+        Program originalProgram = fullFitnessFunction.getOriginalProgram();
+        if (originalProgram != null && originalProgram != target
+                && !getSampledScore(target, originalProgram).promising()) {
+            return false;
+        }
+        return fullFitnessFunction.isAtMaxValue(target);
+    }
+
+    /**
+     * Draws a new sample of the positive tests for the generation, and forgets the sampled
+     * fitness of the previous generation.
+     *
+     * @param generation the index of the generation, starting from 0
+     */
+    @Override
+    public synchronized void startGeneration(int generation) {
+        sampledScores.clear();
+        Program originalProgram = fullFitnessFunction.getOriginalProgram();
+        sampledTests = originalProgram != null ? drawSample(originalProgram) : null;
+    }
+
+    /**
+     * Getter for the tests of the current sample.
+     * @return the names of the sampled tests, none if no program was evaluated yet
+     */
+    public Set<String> getSampledTests() {
+        Program originalProgram = fullFitnessFunction.getOriginalProgram();
+        return originalProgram != null ? getSample(originalProgram) : Set.of();
+    }
+
+    /**
+     * Gets how many programs were evaluated on the sample, and how many of them passed it.
+     *
+     * @return the number of sampled evaluations and of full validations
+     */
+    public String getSummary() {
+        return "sampled_evaluations=" + sampledEvaluationCount.get()
+                + ", full_validations=" + fullValidationCount.get();
+    }
+
+    private SampledScore getSampledScore(Program target, Program originalProgram) {
+        SampledScore score = sampledScores.get(target.getCodes());
+        if (score != null) {
+            return score;
+        }
+
+        // Another thread may evaluate the same source at the same time, the first score is kept
+        score = evaluateSample(target, originalProgram, getSample(originalProgram));
+        SampledScore previousScore = sampledScores.putIfAbsent(target.getCodes(), score);
+        if (previousScore != null) {
+            return previousScore;
+        }
+        sampledEvaluationCount.incrementAndGet();
+        if (score.promising()) {
+            fullValidationCount.incrementAndGet();
+        }
+        return score;
+    }
+
+    private SampledScore evaluateSample(Program target, Program originalProgram, Set<String> sample) {
+        if (target.isNotCompilable()) {
+            return new SampledScore(0, false);
+        }
+
+        List<TestResult> results;
+        try {
+            results = target.getTestSuite().executeTests(target, sample);
+        } catch (Exception e) {
+            return new SampledScore(0, false);
+        }
+
+        List<String> successfulTests = new ArrayList<>();
+        for (TestResult result : results) {
+            if (result.isSucceeded()) {
+                successfulTests.add(result.getTestName());
+            }
+        }
+        return new SampledScore(fullFitnessFunction.score(successfulTests, originalProgram),
+                successfulTests.containsAll(sample));
+    }
+
+    private synchronized Set<String> getSample(Program originalProgram) {
+        if (sampledTests == null) {
+            sampledTests = drawSample(originalProgram);
+        }
+        return sampledTests;
+    }
+
+    private Set<String> drawSample(Program originalProgram) {
+        // Sorted first, so the sample only depends on the random generator
+        List<String> positiveTests = new ArrayList<>(originalProgram.getPositiveTests());
+        Collections.sort(positiveTests);
+        Collections.shuffle(positiveTests, Randomness.getRandom());
+        int sampleSize = Math.min(positiveTests.size(), Math.max(1, (int) Math.ceil(positiveTests.size() * sampleRate)));
+
+        Set<String> sample = new HashSet<>(originalProgram.getNegativeTests());
+        sample.addAll(positiveTests.subList(0, sampleSize));
+        return Set.copyOf(sample);
+    }
+
+    @Override
+    public String toString() {
+        return "SampledFitnessFunction with sample_rate=" + sampleRate + ", " + fullFitnessFunction;
+    }
+
+    /**
+     * The fitness of a program on the sample, and whether it passed every sampled test.
+     */
+    private record SampledScore(double fitness, boolean promising) {
+    }
+}
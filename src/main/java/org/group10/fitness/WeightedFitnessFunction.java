@@ -1,9 +1,13 @@
 package org.group10.fitness;
 
 import org.group10.program.Program;
+import org.group10.testsuite.EarlyTermination;
+import org.group10.testsuite.TestResult;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A fitness function that evaluates {@link Program} instances using a
@@ -16,9 +20,18 @@ import java.util.List;
  * the original program. All the subsequent programs that get evaluated will be based on this
  * original program. <br>
  *
- * If a non-compilable program get evaluated, its fitness score will be 0.
+ * If a non-compilable program get evaluated, its fitness score will be 0. <br>
+ *
+ * The function is safe to use from many threads at once: only the first evaluated
+ * program becomes the original program, and the baseline never changes afterward. <br>
+ *
+ * As an {@link EarlyTermination}, the function runs the negative tests first, and skips
+ * the remaining tests of a program once even passing all of them could not bring the
+ * fitness of the program up to the fitness of the original program. Such a program gets
+ * that upper bound as its fitness, below the fitness of the original program, see
+ * {@link #calculateFitness(Program)}.
  */
-public class WeightedFitnessFunction implements FitnessFunction<Program> {
+public class WeightedFitnessFunction implements FitnessFunction<Program>, EarlyTermination {
     /**
      * Weight applied to positive test results.
      */
@@ -32,7 +45,7 @@ public class WeightedFitnessFunction implements FitnessFunction<Program> {
     /**
      * The original program used as a baseline for fitness evaluation.
      */
-    private Program originalProgram;
+    private volatile Program originalProgram;
 
     /**
      * Creates an instance of {@link WeightedFitnessFunction} with the given test weights.
@@ -55,6 +68,12 @@ public class WeightedFitnessFunction implements FitnessFunction<Program> {
      * NOTE: The first evaluated program is stored as the original program
      * and used for all subsequent comparisons. <br>
      *
+     * A program that skipped its remaining tests (see {@link #canSkipRemainingTests(List, int)})
+     * is counted as passing all of them: its fitness is the upper bound it stopped on, which is
+     * below the fitness of the original program. The bound depends on which tests ran before
+     * the stop, so the fitness of such a program depends on the order of the tests, which
+     * {@link org.group10.testsuite.TestSuite} keeps fixed for a given seed.
+     *
      * @param target the program to evaluate
      * @return the calculated fitness value, or {@code 0} if evaluation fails
      */
@@ -70,19 +89,9 @@ public class WeightedFitnessFunction implements FitnessFunction<Program> {
             return 0;
         }
 
-        if (originalProgram == null) {
-            originalProgram = target;
-        }
-
-        List<String> tmpList = new ArrayList<>(target.getPositiveTests());
-        tmpList.retainAll(originalProgram.getPositiveTests());
-        long positiveCount = tmpList.size();
+        Program originalProgram = getOriginalProgram(target);
 
-        tmpList = new ArrayList<>(target.getPositiveTests());
-        tmpList.retainAll(originalProgram.getNegativeTests());
-        long negativeCount = tmpList.size();
-
-        return positiveCount * positiveTestWeight + negativeCount * negativeTestWeight;
+        return score(target.getPositiveTests(), originalProgram) + target.getSkippedTestCount() * positiveTestWeight;
     }
 
     /**
@@ -103,13 +112,92 @@ public class WeightedFitnessFunction implements FitnessFunction<Program> {
             return false;
         }
 
-        if (originalProgram == null) {
-            originalProgram = target;
-        }
+        Program originalProgram = getOriginalProgram(target);
 
         return (target.getTestSuccessfulCount() == (originalProgram.getTestSuccessfulCount() + originalProgram.getTestFailedCount()));
     }
 
+    /**
+     * Getter for the original program.
+     * @return the first evaluated program, or {@code null} if no program was evaluated yet
+     */
+    Program getOriginalProgram() {
+        return originalProgram;
+    }
+
+    /**
+     * Gets the original program, the given program being the original one if no program was evaluated before.
+     */
+    private Program getOriginalProgram(Program target) {
+        Program program = originalProgram;
+        if (program == null) {
+            synchronized (this) {
+                if (originalProgram == null) {
+                    originalProgram = target;
+                }
+                program = originalProgram;
+            }
+        }
+        return program;
+    }
+
+    /**
+     * Gets the negative tests, to run them before the positive ones.
+     *
+     * @return the tests that failed in the original program, none if no program was evaluated yet
+     */
+    @Override
+    public Set<String> getPriorityTests() {
+        Program program = originalProgram;
+        return program != null ? new HashSet<>(program.getNegativeTests()) : Set.of();
+    }
+
+    /**
+     * Checks whether the fitness of a program can no longer reach the fitness of the original program. <br>
+     *
+     * The fitness of the program can at most be the fitness of its successful tests, plus the
+     * positive weight for every remaining test (none of them being a negative test).
+     *
+     * @param executedResults the outcome of the tests executed so far
+     * @param remainingCount the number of tests left to run
+     * @return {@code true} if the program can not be as fit as the original program,
+     *         {@code false} otherwise or if no program was evaluated yet
+     */
+    @Override
+    public boolean canSkipRemainingTests(List<TestResult> executedResults, int remainingCount) {
+        Program program = originalProgram;
+        if (program == null) {
+            return false;
+        }
+        List<String> successfulTests = new ArrayList<>();
+        for (TestResult result : executedResults) {
+            if (result.isSucceeded()) {
+                successfulTests.add(result.getTestName());
+            }
+        }
+        double upperBound = score(successfulTests, program) + remainingCount * positiveTestWeight;
+        return upperBound < score(program.getPositiveTests(), program);
+    }
+
+    /**
+     * Computes the fitness of the given successful tests.
+     *
+     * @param successfulTests the names of the successful tests
+     * @param originalProgram the original program
+     * @return the weighted number of successful positive and negative tests
+     */
+    double score(List<String> successfulTests, Program originalProgram) {
+        List<String> tmpList = new ArrayList<>(successfulTests);
+        tmpList.retainAll(originalProgram.getPositiveTests());
+        long positiveCount = tmpList.size();
+
+        tmpList = new ArrayList<>(successfulTests);
+        tmpList.retainAll(originalProgram.getNegativeTests());
+        long negativeCount = tmpList.size();
+
+        return positiveCount * positiveTestWeight + negativeCount * negativeTestWeight;
+    }
+
     @Override
     public String toString() {
         return "WeightedFitnessFuction with postive_weight=" + positiveTestWeight + ", negative_weight=" + negativeTestWeight;
@@ -5,23 +5,27 @@ import org.group10.fitness.FitnessFunction;
 import org.group10.mutator.Mutator;
 import org.group10.suspiciouscalculator.SuspiciousCalculator;
 import org.group10.testsuite.TestSuite;
-import org.group10.utils.DummyOutputStream;
-import org.group10.utils.FolderCleaner;
+import org.group10.utils.cache.SourceFingerprint;
+import org.group10.utils.compiler.CompilationResult;
+import org.group10.utils.compiler.CompileExecutor;
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.group10.utils.compiler.SyntacticPreScreen;
 
-import javax.tools.JavaCompiler;
-import javax.tools.ToolProvider;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents a Java program used in a genetic programming. <br>
@@ -45,6 +49,11 @@ public class Program implements Cloneable {
     private final List<String> negativeTests = new ArrayList<>();
     private List<String> codes = new ArrayList<>();
     private boolean isTestSuiteExecuted = false;
+    private volatile int skippedTestCount = 0;
+    private volatile CompilationResult compilationResult;
+    private Boolean compilable;
+    private volatile Program parent;
+    private volatile List<String> compiledAncestorCodes;
 
     /**
      * Construct a Program instance with the following parameters:
@@ -110,7 +119,11 @@ public class Program implements Cloneable {
      * @return a mutated {@code Program} instance
      */
     public Program mutate() {
-        return mutator.mutate(this);
+        Program mutated = mutator.mutate(this);
+        if (mutated != this) {
+            mutated.parent = this;
+        }
+        return mutated;
     }
 
     /**
@@ -121,55 +134,186 @@ public class Program implements Cloneable {
      * @return a {@link Map.Entry} represent the pair of produced offspring
      */
     public Map.Entry<Program, Program> crossover(Program parent2) {
-        return crossover.crossover(this, parent2);
+        Map.Entry<Program, Program> offsprings = crossover.crossover(this, parent2);
+        if (offsprings.getKey() != this) {
+            offsprings.getKey().parent = this;
+        }
+        if (offsprings.getValue() != parent2) {
+            offsprings.getValue().parent = parent2;
+        }
+        return offsprings;
     }
 
     /**
      * Checks whether the program can be compiled successfully. <br>
      *
+     * If the program has not been compiled yet, its source first goes through the
+     * {@link SyntacticPreScreen}, then through an analysis-only check
+     * (see {@link TestSuite#isCompilable(Program)}): no class file is
+     * generated and the check stops at the first error. The full compilation is left
+     * to the programs that go on to the test execution. <br>
+     *
      * In case any exception happened, then the program will be considered not compilable.
      * Thus the result of this method will be {@code false}.
      *
      * @return {@code true} if the program fails to compile, {@code false} otherwise
      */
-    public boolean isNotCompilable() {
-        try {
-            tryCompile(false);
-
-            return false;
-        } catch (Exception e) {
-            return true;
+    public synchronized boolean isNotCompilable() {
+        if (compilationResult != null) {
+            return !compilationResult.isCompilable(className);
+        }
+        if (compilable == null) {
+            try {
+                compilable = testSuite != null
+                        ? testSuite.isCompilable(this)
+                        : SyntacticPreScreen.accepts(codes) && InMemoryJavaCompiler.check(Map.of(className, codes));
+            } catch (Exception e) {
+                compilable = false;
+            }
         }
+        return !compilable;
     }
 
+    /**
+     * Tries to compile the program. <br>
+     *
+     * The compilation itself only happens once, see {@link #getCompilationResult()}.
+     *
+     * @param withLog boolean flag to print the compiler errors and warnings
+     * @throws Exception if the program can not be compiled
+     */
     public void tryCompile(boolean withLog) throws Exception {
-        long id = ProcessHandle.current().pid();
-        Path outputDir = Files.createTempDirectory(className + id + "compiled_");
+        CompilationResult result = getCompilationResult();
 
-        Path javaFile = outputDir.resolve(className + ".java");
-        Files.write(javaFile, codes);
+        if (!result.isCompilable(className)) {
+            if (withLog) {
+                result.printDiagnostics();
+            }
+            throw new Exception("Unknown compile error");
+        }
+    }
 
-        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    /**
+     * Getter for the compilation outcome of the program. <br>
+     *
+     * The program is compiled together with its test suite the first time this
+     * method is called, and the outcome (verdict, diagnostics and class bytes) is
+     * memoized, so the compilability checks and the test execution of the program
+     * all share that single compilation.
+     *
+     * @return the {@link CompilationResult} of the program
+     */
+    public synchronized CompilationResult getCompilationResult() {
+        if (compilationResult == null) {
+            if (testSuite != null) {
+                compilationResult = testSuite.compile(this);
+            } else {
+                compilationResult = InMemoryJavaCompiler.compile(Map.of(className, codes));
+            }
+            forgetAncestors();
+        }
+        return compilationResult;
+    }
 
-        if (compiler == null) {
-            FolderCleaner.cleanTmpDir(className);
-            throw new IllegalStateException("Can not find java compiler from the system");
+    /**
+     * Finds the closest ancestor of the program (the program it was mutated from, or the
+     * first parent of the crossover it comes from) that compiled successfully. <br>
+     *
+     * The program can then be compiled incrementally, by only recompiling the top-level
+     * types that differ from that ancestor.
+     *
+     * @return the closest successfully compiled ancestor, or {@code null} if there is none
+     */
+    public Program getCompiledAncestor() {
+        for (Program ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            if (ancestor.compilationResult != null && ancestor.compilationResult.isSuccessful()) {
+                return ancestor;
+            }
         }
+        return null;
+    }
+
+    /**
+     * Getter for the source code of the closest successfully compiled ancestor of the program,
+     * as it was when the program got compiled, see {@link #getCompiledAncestor()}. <br>
+     *
+     * The tests of the program can then be selected from the outcome of the tests of the
+     * ancestor, see {@link TestSuite#setRegressionTestSelection(boolean, boolean)}.
+     *
+     * @return the source code of the ancestor, or {@code null} if there is none
+     */
+    public List<String> getCompiledAncestorCodes() {
+        return compiledAncestorCodes;
+    }
 
-        // dummyOutputStream so the compiler error or warning does not go out
-        OutputStream dummyOutputStream = withLog ? null : new DummyOutputStream();
+    /**
+     * Forgets the ancestors of the program once compiled, as they are only kept to compile
+     * the program incrementally. Only the source code of the closest compiled one is kept.
+     */
+    private void forgetAncestors() {
+        Program ancestor = getCompiledAncestor();
+        if (ancestor != null) {
+            compiledAncestorCodes = ancestor.codes;
+        }
+        parent = null;
+    }
 
-        int result = compiler.run(
-                null,
-                dummyOutputStream,
-                dummyOutputStream,
-                javaFile.toString()
-        );
+    /**
+     * Compiles many programs at once, see {@link TestSuite#compileAll(List, int, CompileExecutor)}. <br>
+     *
+     * The programs sharing a test suite are compiled together, {@code batchSize} programs
+     * per compilation task, on the workers of the {@link CompileExecutor}. Programs that are
+     * already compiled, or already known not to compile, are skipped, and the others get
+     * their compilation outcome memoized as if they were compiled alone.
+     *
+     * @param programs the programs to compile
+     * @param batchSize the maximum number of programs compiled in one compilation task
+     * @param executor the {@link CompileExecutor} running the compilation tasks
+     */
+    public static void compileAll(List<Program> programs, int batchSize, CompileExecutor executor) {
+        Map<TestSuite, List<Program>> programsOfTestSuite = new LinkedHashMap<>();
+        for (Program program : programs) {
+            if (program.compilationResult == null && program.testSuite != null
+                    && !Boolean.FALSE.equals(program.compilable)) {
+                programsOfTestSuite.computeIfAbsent(program.testSuite, k -> new ArrayList<>()).add(program);
+            }
+        }
 
-        FolderCleaner.cleanTmpDir(className);
+        for (Map.Entry<TestSuite, List<Program>> entry : programsOfTestSuite.entrySet()) {
+            List<Program> toCompile = entry.getValue();
+            List<CompilationResult> results = entry.getKey().compileAll(toCompile, batchSize, executor);
+            for (int i = 0; i < toCompile.size(); i++) {
+                Program program = toCompile.get(i);
+                synchronized (program) {
+                    program.compilationResult = results.get(i);
+                    program.forgetAncestors();
+                }
+            }
+        }
+    }
 
-        if (result != 0) {
-            throw new Exception("Unknown compile error");
+    /**
+     * Evaluates the fitness of many programs concurrently, on the workers of the
+     * {@link CompileExecutor}. <br>
+     *
+     * Every program is compiled, instrumented and tested in its own class loader, and
+     * the outcome is memoized on the program, so the fitness of the programs can then be
+     * read one after the other with {@link #getFitness()} as if they were evaluated
+     * sequentially. The same program is only evaluated once, even if listed many times.
+     *
+     * @param programs the programs to evaluate
+     * @param executor the {@link CompileExecutor} running the evaluations
+     */
+    public static void evaluateAll(List<Program> programs, CompileExecutor executor) {
+        Set<Program> evaluated = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<CompletableFuture<Double>> fitnesses = new ArrayList<>();
+        for (Program program : programs) {
+            if (evaluated.add(program)) {
+                fitnesses.add(executor.submit(program::getFitness));
+            }
+        }
+        for (CompletableFuture<Double> fitness : fitnesses) {
+            CompileExecutor.await(fitness);
         }
     }
 
@@ -198,7 +342,7 @@ public class Program implements Cloneable {
      * @param withLog boolean flag to see if log should be print or not
      * @throws Exception if an error occurs during test execution
      */
-    private void executeTestSuite(boolean withLog) throws Exception {
+    private synchronized void executeTestSuite(boolean withLog) throws Exception {
         if (isTestSuiteExecuted) return;
         testSuite.executeTests(this, withLog);
         isTestSuiteExecuted = true;
@@ -243,13 +387,8 @@ public class Program implements Cloneable {
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof Program prog) {
-            String code1 = prog.codes.stream()
-                    .filter(line -> line != null && !line.isBlank())
-                    .collect(Collectors.joining("\n"));
-
-            String code2 = this.codes.stream()
-                    .filter(line -> line != null && !line.isBlank())
-                    .collect(Collectors.joining("\n"));
+            String code1 = SourceFingerprint.normalize(prog.codes);
+            String code2 = SourceFingerprint.normalize(this.codes);
 
             return code1.equals(code2);
         }
@@ -305,6 +444,23 @@ public class Program implements Cloneable {
         return positiveTests;
     }
 
+    /**
+     * Getter for the number of tests the program skipped, as the remaining tests could no
+     * longer make it useful to the search, see {@link TestSuite#setEarlyTermination}.
+     * @return the number of skipped tests, 0 if the program ran all the tests
+     */
+    public int getSkippedTestCount() {
+        return skippedTestCount;
+    }
+
+    /**
+     * Setter for the number of tests the program skipped, see {@link #getSkippedTestCount()}.
+     * @param skippedTestCount the number of skipped tests
+     */
+    public void setSkippedTestCount(int skippedTestCount) {
+        this.skippedTestCount = skippedTestCount;
+    }
+
     /**
      * Getter for the program size (Line of codes)
      * @return the number of line of codes in the program
@@ -422,14 +578,19 @@ public class Program implements Cloneable {
 
     /**
      * Create a cloned version of the program with similar test suite,
-     * mutator, crossover, fault localization and fitness function
+     * mutator, crossover, fault localization and fitness function. <br>
+     *
+     * The clone has the same source code, so it also shares the compilation outcome.
      * @return the cloned version of the program
      */
     @Override
     public Program clone() {
         try {
             super.clone();
-            return new Program(this.className, this.codes, this.testSuite, this.mutator, this.crossover, this.suspiciousCalculator, this.fitnessFunction);
+            Program cloned = new Program(this.className, this.codes, this.testSuite, this.mutator, this.crossover, this.suspiciousCalculator, this.fitnessFunction);
+            cloned.compilationResult = this.compilationResult;
+            cloned.compilable = this.compilable;
+            return cloned;
         } catch (Exception e) {
             return null;
         }
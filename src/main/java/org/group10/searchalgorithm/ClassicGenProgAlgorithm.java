@@ -3,10 +3,13 @@ package org.group10.searchalgorithm;
 import org.group10.program.Program;
 import org.group10.selection.Selection;
 import org.group10.utils.Randomness;
+import org.group10.utils.compiler.CompileExecutor;
+import org.group10.utils.compiler.SyntacticPreScreen;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -21,10 +24,19 @@ import java.util.Map;
  *
  */
 public class ClassicGenProgAlgorithm implements SearchAlgorithm<Program> {
+    /**
+     * Default maximum number of programs compiled in one compilation task.
+     */
+    public static final int DEFAULT_COMPILE_BATCH_SIZE = 20;
+
     private final int populationSize;
     private final int maxGeneration;
     private final double mutationWeight;
     private final Selection<Program> selector;
+    private int compileBatchSize = DEFAULT_COMPILE_BATCH_SIZE;
+    private CompileExecutor compileExecutor = new CompileExecutor(CompileExecutor.DEFAULT_WORKERS);
+    private long evaluationNanos = 0;
+    private long evaluatedGenerationCount = 0;
 
     /**
      * Constructs a ClassicGenProgAlgorithm with the given parameters. <br>
@@ -71,6 +83,37 @@ public class ClassicGenProgAlgorithm implements SearchAlgorithm<Program> {
         return population;
     }
 
+    /**
+     * Mutates each program of the population with the probability {@link #mutationWeight}. <br>
+     *
+     * A mutation that does not compile is tried again, up to 10 times. The programs are
+     * mutated one after the other, each one waiting for the verdict of its mutation before
+     * the next program draws from {@link Randomness}: whether a mutation is tried again
+     * decides the next draws, so the same seed always gives the same search.
+     *
+     * @param population the population to mutate
+     * @return the mutated population, in the same order as {@code population}
+     */
+    private List<Program> mutate(List<Program> population) {
+        List<Program> mutatedPopulation = new ArrayList<>();
+        for (Program prog : population) {
+            if (Randomness.getRandom().nextDouble() < mutationWeight) {
+                Program mutated = prog.mutate();
+                int maxTries = 10;
+                int tryCount = 0;
+                // In case none of mutation can be compiled
+                while (mutated.isNotCompilable() && tryCount < maxTries) {
+                    mutated = prog.mutate();
+                    tryCount++;
+                }
+                mutatedPopulation.add(mutated);
+            } else {
+                mutatedPopulation.add(prog);
+            }
+        }
+        return mutatedPopulation;
+    }
+
     /**
      * Performs the GenProg search starting from the given program. <br>
      *
@@ -92,11 +135,20 @@ public class ClassicGenProgAlgorithm implements SearchAlgorithm<Program> {
         System.out.println("Crossover: " + startPoint.getCrossover());
         System.out.println("Fault Localization: " + startPoint.getSuspiciousCalculator());
         System.out.println("Fitness Function: : " + startPoint.getFitnessFunction());
+        System.out.println("Compile batch size: " + compileBatchSize);
+        System.out.println("Compile workers: " + compileExecutor.getWorkers());
         System.out.println("*********************************************************");
 
+        // The order of the tests only depends on the outcomes recorded by this search
+        startPoint.getTestSuite().startSearch();
         System.out.println("Initializing the population");
         List<Program> population = initializePopulation(startPoint);
         System.out.println("Finish initialize population");
+        Program.compileAll(population, compileBatchSize, compileExecutor);
+        // The starting program is the baseline of the fitness function, so it is evaluated
+        // before the other programs, which are then evaluated concurrently
+        startPoint.getFitness();
+        Program.evaluateAll(population, compileExecutor);
 
         for (Program prog : population) {
             if (prog.isMaxFitness()) {
@@ -108,6 +160,14 @@ public class ClassicGenProgAlgorithm implements SearchAlgorithm<Program> {
         Program bestProgram = startPoint;
         for (int i = 0; i < maxGeneration; i++) {
             System.out.println("Start generation #" + i);
+            long preScreenRejectedCount = SyntacticPreScreen.getRejectedCount();
+            long evaluationStart = System.nanoTime();
+            // The fitness of the parents may change with the generation (e.g., a new sample of
+            // the tests), so they are evaluated again before the selection
+            startPoint.getFitnessFunction().startGeneration(i);
+            startPoint.getTestSuite().startGeneration();
+            Program.evaluateAll(population, compileExecutor);
+            long generationEvaluationNanos = System.nanoTime() - evaluationStart;
 
             population = population.stream()
                     .filter(p -> !p.isNotCompilable())
@@ -116,71 +176,129 @@ public class ClassicGenProgAlgorithm implements SearchAlgorithm<Program> {
             List<Program> newPopulation = new ArrayList<>();
             System.out.println("Start crossover");
             while (newPopulation.size() < populationSize) {
-                List<Program> tmpPopulation = new ArrayList<>(population);
-                Program parent1 = selector.select(tmpPopulation);
-                tmpPopulation = tmpPopulation.stream().filter(p -> !p.equals(parent1)).toList();
-                Program parent2;
-                // If the population only have one suitable parent then we have that one parent
-                // to create offspring with itself
-                if (tmpPopulation.isEmpty()) {
-                    parent2 = parent1;
-                } else {
-                    parent2 = selector.select(tmpPopulation);
-                }
-                Map.Entry<Program, Program> offsprings = parent1.crossover(parent2);
-                Program child1 = offsprings.getKey();
-                Program child2 = offsprings.getValue();
-
-                // If we have some check to only add parent1 and parent2 if
-                // they are not already in there, the search might ran in infinite
-                // loop and hang
-                newPopulation.add(parent1);
-                newPopulation.add(parent2);
-                if (!child1.isNotCompilable()) {
-                    newPopulation.add(child1);
+                // The offspring are generated as if they all compile, and their verdicts are
+                // computed on the workers. As the population can only grow slower than that,
+                // every family generated here would have been generated one by one as well.
+                List<Program> families = new ArrayList<>();
+                List<CompletableFuture<Boolean>> verdicts = new ArrayList<>();
+                int expectedSize = newPopulation.size();
+                while (expectedSize < populationSize) {
+                    List<Program> tmpPopulation = new ArrayList<>(population);
+                    Program parent1 = selector.select(tmpPopulation);
+                    tmpPopulation = tmpPopulation.stream().filter(p -> !p.equals(parent1)).toList();
+                    Program parent2;
+                    // If the population only have one suitable parent then we have that one parent
+                    // to create offspring with itself
+                    if (tmpPopulation.isEmpty()) {
+                        parent2 = parent1;
+                    } else {
+                        parent2 = selector.select(tmpPopulation);
+                    }
+                    Map.Entry<Program, Program> offsprings = parent1.crossover(parent2);
+                    Program child1 = offsprings.getKey();
+                    Program child2 = offsprings.getValue();
+
+                    families.addAll(List.of(parent1, parent2, child1, child2));
+                    verdicts.add(compileExecutor.submit(child1::isNotCompilable));
+                    verdicts.add(compileExecutor.submit(child2::isNotCompilable));
+                    expectedSize += 4;
                 }
-                if (!child2.isNotCompilable()) {
-                    newPopulation.add(child2);
+
+                for (int j = 0; j < families.size(); j += 4) {
+                    // If we have some check to only add parent1 and parent2 if
+                    // they are not already in there, the search might ran in infinite
+                    // loop and hang
+                    newPopulation.add(families.get(j));
+                    newPopulation.add(families.get(j + 1));
+                    if (!CompileExecutor.await(verdicts.get(j / 2))) {
+                        newPopulation.add(families.get(j + 2));
+                    }
+                    if (!CompileExecutor.await(verdicts.get(j / 2 + 1))) {
+                        newPopulation.add(families.get(j + 3));
+                    }
                 }
             }
             System.out.println("Finish crossover");
 
-            population = new ArrayList<>();
             System.out.println("Start mutation");
-            for (Program prog : newPopulation) {
-                if (Randomness.getRandom().nextDouble() < mutationWeight) {
-                    Program mutated = prog.mutate();
-                    int maxTries = 10;
-                    int tryCount = 0;
-                    // In case none of mutation can be compiled
-                    while (mutated.isNotCompilable() && tryCount < maxTries) {
-                        mutated = prog.mutate();
-                        tryCount++;
-                    }
-                    population.add(mutated);
-                } else {
-                    population.add(prog);
-                }
-            }
+            population = mutate(newPopulation);
             System.out.println("Finish mutation");
+            // Only the programs of the new population go on to the test execution, so the
+            // class files are only generated for them, and together
+            Program.compileAll(population, compileBatchSize, compileExecutor);
+            evaluationStart = System.nanoTime();
+            // The outcomes are memoized on the programs, which are then read in order
+            Program.evaluateAll(population, compileExecutor);
             double populationBestFitness = 0.0;
+            Program populationBest = null;
             for (Program prog : population) {
                 if (prog.isMaxFitness()) {
+                    recordEvaluationTime(i, generationEvaluationNanos + System.nanoTime() - evaluationStart);
                     System.out.println("Patches Found on generation #" + i + "!!!");
                     return prog;
                 }
                 double fitness = prog.getFitness();
                 if (fitness > populationBestFitness) {
                     populationBestFitness = fitness;
+                    populationBest = prog;
                 }
                 if (fitness > bestProgram.getFitness()) {
                     bestProgram = prog;
                 }
             }
-            System.out.println("Population #" + i + " best fitness: " + populationBestFitness);
+            recordEvaluationTime(i, generationEvaluationNanos + System.nanoTime() - evaluationStart);
+            // The fitness of a program that stopped early is only an upper bound
+            System.out.println("Population #" + i + " best fitness: " + (populationBest != null
+                    && populationBest.getSkippedTestCount() > 0 ? "at most " + populationBestFitness
+                    + " (stopped early, " + populationBest.getSkippedTestCount() + " tests skipped)"
+                    : populationBestFitness));
+            System.out.println("Pre-screen rejected " + (SyntacticPreScreen.getRejectedCount() - preScreenRejectedCount)
+                    + " candidates before compilation on generation #" + i);
         }
 
         System.out.println("Max generation reached, return with best patch");
         return bestProgram;
     }
+
+    private void recordEvaluationTime(int generation, long nanos) {
+        evaluationNanos += nanos;
+        evaluatedGenerationCount++;
+        System.out.println("Population #" + generation + " evaluation time: " + nanos / 1_000_000 + " ms");
+    }
+
+    /**
+     * Gets the average time spent evaluating the fitness of a population, over every
+     * generation of every search run so far (the initial population excluded).
+     *
+     * @return the average evaluation time per generation and the number of generations
+     */
+    public String getEvaluationSummary() {
+        long average = evaluatedGenerationCount > 0 ? evaluationNanos / evaluatedGenerationCount / 1_000_000 : 0;
+        return average + " ms (over " + evaluatedGenerationCount + " generations)";
+    }
+
+    /**
+     * Configures how many programs of a population are compiled together in one compilation task. <br>
+     *
+     * Values lower or equal to 1 disable the batch compilation, so every program
+     * gets compiled on its own.
+     *
+     * @param compileBatchSize the maximum number of programs compiled in one compilation task
+     */
+    public void setCompileBatchSize(int compileBatchSize) {
+        this.compileBatchSize = compileBatchSize;
+    }
+
+    /**
+     * Configures the {@link CompileExecutor} running the compilations, the compilability
+     * checks and the evaluations of the search. <br>
+     *
+     * By default, the search uses its own executor with one worker per available processor.
+     *
+     * @param compileExecutor the {@link CompileExecutor} to submit the candidates to
+     */
+    public void setCompileExecutor(CompileExecutor compileExecutor) {
+        this.compileExecutor.close();
+        this.compileExecutor = compileExecutor;
+    }
 }
@@ -0,0 +1,30 @@
+package org.group10.testsuite;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decides which tests of a program run first, and whether the remaining ones are worth
+ * running at all, see {@link TestSuite#setEarlyTermination(EarlyTermination)}. <br>
+ *
+ * The priority tests run first, then the other ones in batches, until the outcome of
+ * the remaining tests can no longer make the program useful to the search. The tests
+ * that are not run are left out of the outcome of the program.
+ */
+public interface EarlyTermination {
+    /**
+     * Gets the tests to run before the other ones.
+     *
+     * @return the names of the priority tests, in the form "{@code TestClass@testMethod}"
+     */
+    Set<String> getPriorityTests();
+
+    /**
+     * Checks whether the remaining tests of a program can be skipped.
+     *
+     * @param executedResults the outcome of the tests executed so far
+     * @param remainingCount the number of tests left to run, none of them being a priority test
+     * @return {@code true} if the remaining tests can not make the program useful to the search
+     */
+    boolean canSkipRemainingTests(List<TestResult> executedResults, int remainingCount);
+}
@@ -0,0 +1,113 @@
+package org.group10.testsuite;
+
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived {@link LauncherSession}s of the JUnit Platform, reused by the executions of
+ * the tests of all the programs. <br>
+ *
+ * Opening a session loads the test engines and the launcher listeners through the
+ * service loader and configures the launcher, which is the same work for every program.
+ * Each thread executing tests gets its own session, opened on its first execution and
+ * kept until {@link #close()}, as a {@link Launcher} is not meant to execute requests
+ * concurrently. The listener collecting the outcome of a program is only attached to the
+ * execution of that program, so nothing of a program outlives its execution. <br>
+ *
+ * Without reuse, every execution opens and closes its own session, the way the tests were
+ * executed before, which keeps the setup cost of a program measurable, see {@link #toString()}.
+ */
+public class LauncherSessionPool implements AutoCloseable {
+    private final boolean reuse;
+    private final Map<Thread, LauncherSession> sessions = Collections.synchronizedMap(new WeakHashMap<>());
+    private final AtomicLong openedCount = new AtomicLong();
+    private final AtomicLong executionCount = new AtomicLong();
+    private final AtomicLong setupNanos = new AtomicLong();
+    private final AtomicLong executionNanos = new AtomicLong();
+
+    /**
+     * Constructor for the sessions of the JUnit Platform.
+     *
+     * @param reuse {@code true} to keep one session per thread across executions,
+     *              {@code false} to open a new session for every execution
+     */
+    public LauncherSessionPool(boolean reuse) {
+        this.reuse = reuse;
+    }
+
+    /**
+     * Discovers and executes the tests of a request with the session of the current thread.
+     *
+     * @param request the {@link LauncherDiscoveryRequest} selecting the tests to execute
+     * @param listener the {@link TestExecutionListener} notified of this execution only
+     */
+    public void execute(LauncherDiscoveryRequest request, TestExecutionListener listener) {
+        long start = System.nanoTime();
+        LauncherSession session = reuse ? sessions.get(Thread.currentThread()) : null;
+        if (session == null) {
+            session = LauncherFactory.openSession();
+            openedCount.incrementAndGet();
+            if (reuse) {
+                sessions.put(Thread.currentThread(), session);
+            }
+        }
+
+        try {
+            Launcher launcher = session.getLauncher();
+            long executionStart = System.nanoTime();
+            setupNanos.addAndGet(executionStart - start);
+            launcher.execute(request, listener);
+            executionNanos.addAndGet(System.nanoTime() - executionStart);
+        } finally {
+            if (!reuse) {
+                long closeStart = System.nanoTime();
+                session.close();
+                setupNanos.addAndGet(System.nanoTime() - closeStart);
+            }
+            executionCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Closes every session kept so far, once no test executes anymore. The threads open a
+     * new session on their next execution.
+     */
+    @Override
+    public void close() {
+        List<LauncherSession> openSessions;
+        synchronized (sessions) {
+            openSessions = new ArrayList<>(sessions.values());
+            sessions.clear();
+        }
+        for (LauncherSession session : openSessions) {
+            session.close();
+        }
+    }
+
+    /**
+     * Getter for the number of sessions opened so far.
+     * @return the number of sessions opened
+     */
+    public long getOpenedCount() {
+        return openedCount.get();
+    }
+
+    @Override
+    public String toString() {
+        long executions = executionCount.get();
+        return "LauncherSessionPool reuse=" + reuse + ", sessions_opened=" + openedCount.get()
+                + ", executions=" + executions
+                + ", setup_per_execution=" + (executions > 0 ? setupNanos.get() / executions / 1000 : 0) + "us"
+                + ", run_per_execution=" + (executions > 0 ? executionNanos.get() / executions / 1000 : 0) + "us";
+    }
+}
@@ -0,0 +1,293 @@
+package org.group10.testsuite;
+
+import org.group10.utils.instrument.CoverageTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Lightweight runner executing the tests of a test class by reflection, without the
+ * JUnit Platform. <br>
+ *
+ * Discovering and executing tests with the JUnit launcher costs milliseconds per test
+ * class, while most test suites are plain {@link Test} methods with at most one
+ * {@link BeforeEach} and one {@link AfterEach} method. Those are invoked directly here,
+ * the same way JUnit Jupiter would: a new instance of the test class per test, then the
+ * {@code @BeforeEach} method, the test, and the {@code @AfterEach} method (even if the
+ * previous ones failed). A test succeeds if none of them throws. Assertions like
+ * {@code assertThrows} are plain method calls, so they need no support. <br>
+ *
+ * Any other JUnit feature (other annotations, parameterized or nested tests, inheritance,
+ * constructor injection, ...) is not supported, see {@link #supports(Class)}: the caller
+ * has to execute those test classes with the JUnit launcher instead.
+ */
+public class ReflectiveTestRunner {
+    private static final Set<Class<? extends Annotation>> SUPPORTED_ANNOTATIONS =
+            Set.of(Test.class, BeforeEach.class, AfterEach.class);
+
+    /**
+     * The default order of the test methods in JUnit Jupiter: deterministic, but intentionally
+     * not obvious (by hash code of the name, then by name and signature).
+     */
+    private static final Comparator<Method> JUNIT_METHOD_ORDER = (method1, method2) -> {
+        int comparison = Integer.compare(method1.getName().hashCode(), method2.getName().hashCode());
+        if (comparison == 0) {
+            comparison = method1.getName().compareTo(method2.getName());
+            if (comparison == 0) {
+                comparison = method1.toString().compareTo(method2.toString());
+            }
+        }
+        return comparison;
+    };
+
+    private static long reflectiveCount = 0;
+    private static long fallbackCount = 0;
+    private static long parallelCount = 0;
+
+    /**
+     * Checks whether the tests of a test class can be executed by this runner. <br>
+     *
+     * The class has to be a top-level class extending {@link Object} directly, with a single
+     * constructor without parameters, and no JUnit annotation other than {@link Test},
+     * {@link BeforeEach} and {@link AfterEach}, the latter two on at most one method each.
+     * Every test method has to be a non-static, non-private method without parameters
+     * returning {@code void} (the other ones are not tests for JUnit).
+     *
+     * @param testClass the test class
+     * @return {@code true} if the test class can be executed by this runner, {@code false}
+     *         if it has to be executed by the JUnit launcher
+     */
+    public static boolean supports(Class<?> testClass) {
+        boolean supported = isSupported(testClass);
+        record(supported);
+        return supported;
+    }
+
+    /**
+     * Executes the given tests of a test class, see {@link #supports(Class)}. <br>
+     *
+     * The tests are executed in the order JUnit Jupiter executes them by default, and the
+     * {@link CoverageTracker} is reset before each test, so the lines executed by every test
+     * (including its instantiation and lifecycle methods) are recorded separately, and every
+     * test gets the whole {@link CoverageTracker.Budget} of the current thread. With a timeout,
+     * every test runs on a thread of its own, see {@link TestDeadline}.
+     *
+     * @param testClass the test class
+     * @param testMethods the test methods to execute
+     * @return the {@link TestResult} of every test, in the same order as {@code testMethods}
+     * @throws ReflectiveOperationException if the test class can not be instantiated
+     */
+    public static List<TestResult> run(Class<?> testClass, List<Method> testMethods)
+            throws ReflectiveOperationException {
+        return run(testClass, testMethods, null);
+    }
+
+    /**
+     * Executes the given tests of a test class, concurrently on the given executor, see
+     * {@link #run(Class, List)}. <br>
+     *
+     * Every test records its coverage in the coverage context of the thread it runs on.
+     * The caller has to make sure the tests do not share any state, see
+     * {@link org.group10.utils.instrument.SharedStateDetector}.
+     *
+     * @param testClass the test class
+     * @param testMethods the test methods to execute
+     * @param executor the {@link ExecutorService} to run the tests on, or {@code null} to run
+     *                 them one after the other on the current thread
+     * @return the {@link TestResult} of every test, in the same order as {@code testMethods}
+     * @throws ReflectiveOperationException if the test class can not be instantiated
+     */
+    public static List<TestResult> run(Class<?> testClass, List<Method> testMethods, ExecutorService executor)
+            throws ReflectiveOperationException {
+        Constructor<?> constructor = testClass.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Method beforeEach = findLifecycleMethod(testClass, BeforeEach.class);
+        Method afterEach = findLifecycleMethod(testClass, AfterEach.class);
+
+        List<Method> executionOrder = new ArrayList<>(testMethods);
+        executionOrder.sort(JUNIT_METHOD_ORDER);
+
+        // The tests running on the executor get the budget of the current thread
+        CoverageTracker.Budget budget = CoverageTracker.getBudget();
+        Map<Method, Future<TestResult>> results = new LinkedHashMap<>();
+        for (Method testMethod : executionOrder) {
+            testMethod.setAccessible(true);
+            String testName = testClass.getSimpleName() + "@" + testMethod.getName();
+            Callable<TestResult> timedTest = () -> {
+                CoverageTracker.Budget previousBudget = CoverageTracker.getBudget();
+                CoverageTracker.setBudget(budget);
+                CoverageTracker.reset();
+                boolean succeeded = runTest(constructor, beforeEach, testMethod, afterEach);
+                TestResult result = new TestResult(testName, succeeded, CoverageTracker.getExecutedLines(),
+                        CoverageTracker.getTicks(), CoverageTracker.getAllocatedBytes(), CoverageTracker.isTimedOut(),
+                        CoverageTracker.isClockTimedOut());
+                CoverageTracker.setBudget(previousBudget);
+                CoverageTracker.reset();
+                return result;
+            };
+            // A test the tracker can not stop (blocked, or not ticking) is abandoned at its deadline
+            Callable<TestResult> test = () -> TestDeadline.call(timedTest, budget.timeoutMillis(),
+                    () -> TestResult.clockTimedOut(testName));
+            results.put(testMethod, executor != null ? executor.submit(test) : runNow(test));
+        }
+        if (executor != null) {
+            recordParallel();
+        }
+
+        List<TestResult> orderedResults = new ArrayList<>();
+        for (Method testMethod : testMethods) {
+            try {
+                orderedResults.add(results.get(testMethod).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the tests", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Fail to run test " + testMethod.getName(), e.getCause());
+            }
+        }
+        return orderedResults;
+    }
+
+    /**
+     * Gets a summary of the test classes seen so far.
+     * @return the number of test classes executed by this runner (concurrently or not) and by the JUnit launcher
+     */
+    public static synchronized String getSummary() {
+        return "ReflectiveTestRunner reflective=" + reflectiveCount + ", parallel=" + parallelCount
+                + ", launcher_fallbacks=" + fallbackCount;
+    }
+
+    private static Future<TestResult> runNow(Callable<TestResult> test) {
+        try {
+            return CompletableFuture.completedFuture(test.call());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static boolean runTest(Constructor<?> constructor, Method beforeEach, Method testMethod, Method afterEach) {
+        Object instance;
+        try {
+            instance = constructor.newInstance();
+        } catch (Throwable e) {
+            return false;
+        }
+
+        boolean succeeded = invoke(beforeEach, instance) && invoke(testMethod, instance);
+        // The @AfterEach method runs even if the @BeforeEach method or the test failed
+        return invoke(afterEach, instance) && succeeded;
+    }
+
+    private static boolean invoke(Method method, Object instance) {
+        if (method == null) {
+            return true;
+        }
+        try {
+            method.invoke(instance);
+            return true;
+        } catch (InvocationTargetException | IllegalAccessException e) {
+            return false;
+        }
+    }
+
+    private static boolean isSupported(Class<?> testClass) {
+        if (testClass.getSuperclass() != Object.class || testClass.getInterfaces().length > 0
+                || testClass.getEnclosingClass() != null || Modifier.isAbstract(testClass.getModifiers())
+                || hasJUnitAnnotation(testClass)) {
+            return false;
+        }
+        for (Class<?> memberClass : testClass.getDeclaredClasses()) {
+            // e.g., @Nested test classes
+            if (hasJUnitAnnotation(memberClass)) {
+                return false;
+            }
+        }
+
+        Constructor<?>[] constructors = testClass.getDeclaredConstructors();
+        if (constructors.length != 1 || constructors[0].getParameterCount() != 0) {
+            return false;
+        }
+        for (Field field : testClass.getDeclaredFields()) {
+            // e.g., @TempDir or @RegisterExtension
+            if (hasJUnitAnnotation(field)) {
+                return false;
+            }
+        }
+
+        int beforeEachCount = 0;
+        int afterEachCount = 0;
+        for (Method method : testClass.getDeclaredMethods()) {
+            for (Annotation annotation : method.getAnnotations()) {
+                if (isJUnitAnnotation(annotation) && !SUPPORTED_ANNOTATIONS.contains(annotation.annotationType())) {
+                    return false;
+                }
+            }
+            boolean annotated = method.isAnnotationPresent(Test.class)
+                    || method.isAnnotationPresent(BeforeEach.class)
+                    || method.isAnnotationPresent(AfterEach.class);
+            if (annotated && !isInvocable(method)) {
+                return false;
+            }
+            if (method.isAnnotationPresent(BeforeEach.class)) beforeEachCount++;
+            if (method.isAnnotationPresent(AfterEach.class)) afterEachCount++;
+        }
+        // JUnit does not specify the order of many lifecycle methods of the same kind
+        return beforeEachCount <= 1 && afterEachCount <= 1;
+    }
+
+    private static boolean isInvocable(Method method) {
+        int modifiers = method.getModifiers();
+        return !Modifier.isStatic(modifiers) && !Modifier.isPrivate(modifiers)
+                && method.getParameterCount() == 0 && method.getReturnType() == void.class;
+    }
+
+    private static boolean hasJUnitAnnotation(AnnotatedElement element) {
+        return Arrays.stream(element.getAnnotations()).anyMatch(ReflectiveTestRunner::isJUnitAnnotation);
+    }
+
+    private static boolean isJUnitAnnotation(Annotation annotation) {
+        return annotation.annotationType().getName().startsWith("org.junit.");
+    }
+
+    private static Method findLifecycleMethod(Class<?> testClass, Class<? extends Annotation> annotation) {
+        for (Method method : testClass.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(annotation)) {
+                method.setAccessible(true);
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static synchronized void record(boolean supported) {
+        if (supported) {
+            reflectiveCount++;
+        } else {
+            fallbackCount++;
+        }
+    }
+
+    private static synchronized void recordParallel() {
+        parallelCount++;
+    }
+}
@@ -0,0 +1,145 @@
+package org.group10.testsuite;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.CallableDeclaration;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Selects the tests of a program to run again after a change, from the outcome and the
+ * coverage of the tests on the program it was derived from (its parent). <br>
+ *
+ * The source of the child is compared to the source of the parent: the lines from the
+ * first to the last differing line are the changed region. If that region lies within
+ * the body of a single method or constructor, only the tests that executed a line of
+ * that method on the parent can behave differently on the child, as long as the
+ * program is deterministic. The other tests keep their outcome and coverage, with the
+ * line numbers shifted past the changed region. A change in code no test executes
+ * does not run any test at all. <br>
+ *
+ * A change outside of a method body (e.g., a field initializer, a signature, or many
+ * methods at once) runs every test.
+ */
+public class RegressionTestSelector {
+    private static final ParserConfiguration PARSER_CONFIGURATION = new ParserConfiguration()
+            .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_18);
+
+    /**
+     * Selects the tests of the child to run again.
+     *
+     * @param parentCodes the source code of the parent
+     * @param parentResults the outcome of every test on the parent
+     * @param childCodes the source code of the child
+     * @return the {@link Selection} of the tests to run, or {@code null} if every test has to run
+     */
+    public static Selection select(List<String> parentCodes, List<TestResult> parentResults, List<String> childCodes) {
+        int prefix = 0;
+        int maxCommon = Math.min(parentCodes.size(), childCodes.size());
+        while (prefix < maxCommon && parentCodes.get(prefix).equals(childCodes.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < maxCommon - prefix
+                && parentCodes.get(parentCodes.size() - 1 - suffix).equals(childCodes.get(childCodes.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        // The changed regions, as 1-based line numbers: [first, last], empty if last < first
+        int first = prefix + 1;
+        Range parentMethod = enclosingMethod(parentCodes, first, parentCodes.size() - suffix);
+        Range childMethod = enclosingMethod(childCodes, first, childCodes.size() - suffix);
+        if (parentMethod == null || childMethod == null || parentMethod.begin.line != childMethod.begin.line) {
+            return null;
+        }
+
+        int shift = childCodes.size() - parentCodes.size();
+        int firstUnchangedAfter = parentCodes.size() - suffix + 1;
+        Set<String> testsToRun = new HashSet<>();
+        Map<String, TestResult> inheritedResults = new LinkedHashMap<>();
+        List<String> testOrder = new ArrayList<>();
+        for (TestResult result : parentResults) {
+            testOrder.add(result.getTestName());
+            boolean executesMethod = result.getExecutedLines().stream()
+                    .anyMatch(line -> line >= parentMethod.begin.line && line <= parentMethod.end.line);
+            // A timeout depends on the clock, so its outcome is not inherited
+            if (executesMethod || result.isTimedOut()) {
+                testsToRun.add(result.getTestName());
+                continue;
+            }
+
+            List<Integer> executedLines = new ArrayList<>();
+            for (int line : result.getExecutedLines()) {
+                executedLines.add(line >= firstUnchangedAfter ? line + shift : line);
+            }
+            inheritedResults.put(result.getTestName(), new TestResult(result.getTestName(), result.isSucceeded(),
+                    executedLines, result.getTicks(), result.getAllocatedBytes(), false, false));
+        }
+        return new Selection(testsToRun, inheritedResults, testOrder);
+    }
+
+    /**
+     * Finds the innermost method or constructor whose body holds the given lines.
+     *
+     * @param codes the source code
+     * @param first the first line of the region (1-based)
+     * @param last the last line of the region, {@code first - 1} for an insertion before {@code first}
+     * @return the range of the method, or {@code null} if the region is not within a method body
+     */
+    private static Range enclosingMethod(List<String> codes, int first, int last) {
+        ParseResult<CompilationUnit> parsed = new JavaParser(PARSER_CONFIGURATION).parse(String.join("\n", codes));
+        if (!parsed.isSuccessful() || parsed.getResult().isEmpty()) {
+            return null;
+        }
+
+        Range enclosing = null;
+        for (CallableDeclaration<?> method : parsed.getResult().get().findAll(CallableDeclaration.class)) {
+            Range range = method.getRange().orElse(null);
+            // The declaration line and the closing brace must be unchanged
+            if (range == null || range.begin.line >= first || range.end.line <= last) {
+                continue;
+            }
+            if (enclosing == null || range.begin.line > enclosing.begin.line) {
+                enclosing = range;
+            }
+        }
+        return enclosing;
+    }
+
+    /**
+     * The tests to run again on a child, and the outcome of the other tests, inherited from its parent.
+     *
+     * @param testsToRun the names of the tests to run again
+     * @param inheritedResults the outcome of the other tests, by name, with the line numbers of the child
+     * @param testOrder the names of all the tests, in the order they ran on the parent
+     */
+    public record Selection(Set<String> testsToRun, Map<String, TestResult> inheritedResults, List<String> testOrder) {
+        /**
+         * Merges the outcome of the tests run again with the inherited ones.
+         *
+         * @param rerunResults the outcome of the tests run again
+         * @return the outcome of every test, in the order they ran on the parent
+         */
+        public List<TestResult> merge(List<TestResult> rerunResults) {
+            Map<String, TestResult> resultsByName = new LinkedHashMap<>(inheritedResults);
+            for (TestResult result : rerunResults) {
+                resultsByName.put(result.getTestName(), result);
+            }
+            List<TestResult> results = new ArrayList<>();
+            for (String testName : testOrder) {
+                if (resultsByName.containsKey(testName)) {
+                    results.add(resultsByName.get(testName));
+                }
+            }
+            return results;
+        }
+    }
+}
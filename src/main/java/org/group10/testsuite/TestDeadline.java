@@ -0,0 +1,86 @@
+package org.group10.testsuite;
+
+import org.group10.utils.instrument.CoverageTracker;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs the tests executed in the current JVM under a real wall-clock deadline. <br>
+ *
+ * The {@link CoverageTracker} only checks the timeout of a test while the program ticks,
+ * so a test blocked in a sleep, a wait, some I/O or a loop of the JDK (or not ticking at
+ * all, see {@link TestSuite#setTestBudget(double, long)}) would never stop. Every test
+ * therefore runs on a thread of its own, and the caller waits for it until the timeout
+ * plus a grace period, leaving the tracker the chance to stop the test first. A test still
+ * running then is interrupted and abandoned: its thread is a daemon thread, which keeps
+ * running until the test gives up, and only then returns to the pool to run other tests.
+ * Without a timeout, the test runs on the current thread instead.
+ */
+class TestDeadline {
+    /**
+     * Time left to the {@link CoverageTracker} to stop a test exceeding its timeout, before
+     * the test is abandoned.
+     */
+    static final long GRACE_MILLIS = 1_000;
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "test-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicLong abandonedCount = new AtomicLong();
+
+    private TestDeadline() {
+    }
+
+    /**
+     * Runs a task on a thread of its own, and waits for it until its timeout.
+     *
+     * @param task the task running a test, with its own {@link CoverageTracker.Budget}
+     * @param timeoutMillis the wall-clock timeout of the task in milliseconds, 0 or less to run
+     *                      the task on the current thread without deadline
+     * @param onTimeout the outcome of the task if it is abandoned
+     * @param <T> the type of the outcome
+     * @return the outcome of the task, or the one of {@code onTimeout}
+     * @throws Exception the exception thrown by the task
+     */
+    static <T> T call(Callable<T> task, long timeoutMillis, Supplier<T> onTimeout) throws Exception {
+        if (timeoutMillis <= 0) {
+            return task.call();
+        }
+
+        Future<T> future = executor.submit(task);
+        try {
+            return future.get(timeoutMillis + GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            abandonedCount.incrementAndGet();
+            return onTimeout.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Getter for the number of tasks abandoned so far.
+     * @return the number of tasks still running at their deadline
+     */
+    static long getAbandonedCount() {
+        return abandonedCount.get();
+    }
+}
@@ -0,0 +1,124 @@
+package org.group10.testsuite;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of executing a single test of a {@link TestSuite} on a program. <br>
+ *
+ * Contains the name of the test, whether it succeeded, and the lines of the
+ * program that got executed by the test (the coverage spectrum of the test).
+ */
+public class TestResult {
+    private final String testName;
+    private final boolean succeeded;
+    private final List<Integer> executedLines;
+    private final long ticks;
+    private final long allocatedBytes;
+    private final boolean timedOut;
+    private final boolean clockTimedOut;
+
+    /**
+     * Constructs a test result.
+     *
+     * @param testName the name of the test, in the form "{@code TestClass@testMethod}"
+     * @param succeeded {@code true} if the test passed, {@code false} otherwise
+     * @param executedLines the line numbers of the program executed by the test
+     */
+    public TestResult(String testName, boolean succeeded, List<Integer> executedLines) {
+        this(testName, succeeded, executedLines, 0, 0, false, false);
+    }
+
+    /**
+     * Constructs a test result.
+     *
+     * @param testName the name of the test, in the form "{@code TestClass@testMethod}"
+     * @param succeeded {@code true} if the test passed, {@code false} otherwise
+     * @param executedLines the line numbers of the program executed by the test
+     * @param ticks the number of method calls and loop iterations of the program executed by
+     *              the test, 0 if not counted
+     * @param allocatedBytes the number of bytes allocated by the test, 0 if not accounted
+     * @param timedOut {@code true} if the test was stopped for exceeding its budget
+     * @param clockTimedOut {@code true} if the test was stopped for exceeding its wall-clock
+     *                      timeout (the test then timed out as well)
+     */
+    public TestResult(String testName, boolean succeeded, List<Integer> executedLines, long ticks,
+                      long allocatedBytes, boolean timedOut, boolean clockTimedOut) {
+        this.testName = testName;
+        this.succeeded = succeeded && !timedOut && !clockTimedOut;
+        this.executedLines = executedLines;
+        this.ticks = ticks;
+        this.allocatedBytes = allocatedBytes;
+        this.timedOut = timedOut || clockTimedOut;
+        this.clockTimedOut = clockTimedOut;
+    }
+
+    /**
+     * Constructs the result of a test stopped for exceeding its wall-clock timeout, without
+     * any coverage, e.g. a test abandoned at its deadline or run by a killed worker JVM.
+     *
+     * @param testName the name of the test, in the form "{@code TestClass@testMethod}"
+     * @return a failed test result, timed out on the wall clock
+     */
+    public static TestResult clockTimedOut(String testName) {
+        return new TestResult(testName, false, new ArrayList<>(), 0, 0, true, true);
+    }
+
+    /**
+     * Getter for the name of the test.
+     * @return the name of the test
+     */
+    public String getTestName() {
+        return testName;
+    }
+
+    /**
+     * Check if the test passed.
+     * @return {@code true} if the test passed, {@code false} otherwise
+     */
+    public boolean isSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * Getter for the lines executed by the test.
+     * @return the line numbers of the program executed by the test
+     */
+    public List<Integer> getExecutedLines() {
+        return executedLines;
+    }
+
+    /**
+     * Getter for the number of method calls and loop iterations of the program executed by the test.
+     * @return the number of ticks of the test, 0 if not counted
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Getter for the number of bytes allocated by the test.
+     * @return the number of allocated bytes, 0 if not accounted
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Check if the test was stopped for exceeding its budget (a timed-out test is failed).
+     * @return {@code true} if the test timed out, {@code false} otherwise
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Check if the test was stopped for exceeding its wall-clock timeout. Unlike the tick and
+     * allocation budgets, the timeout depends on the load of the machine, so such an outcome
+     * may not happen again.
+     * @return {@code true} if the test exceeded its wall-clock timeout, {@code false} otherwise
+     */
+    public boolean isClockTimedOut() {
+        return clockTimedOut;
+    }
+}
@@ -0,0 +1,120 @@
+package org.group10.testsuite;
+
+import org.group10.utils.instrument.CoverageTracker;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link TestExecutionListener} recording the outcome and the coverage of every test
+ * executed by a single launcher execution. <br>
+ *
+ * The {@link CoverageTracker} is reset when a test starts, and the lines it recorded are
+ * harvested when the test finishes. The lines executed by a test class outside of its
+ * tests (e.g., in {@code @BeforeAll} and {@code @AfterAll} methods) are added to every
+ * test of the class, as if each test was executed on its own.
+ */
+public class TestResultListener implements TestExecutionListener {
+    private final Map<String, Boolean> outcomes = new HashMap<>();
+    private final Map<String, Set<Integer>> executedLines = new HashMap<>();
+    private final Map<String, Long> ticks = new HashMap<>();
+    private final Map<String, Long> allocations = new HashMap<>();
+    private final Map<String, Boolean> timeouts = new HashMap<>();
+    private final Map<String, Boolean> clockTimeouts = new HashMap<>();
+    private final Map<String, List<String>> testsOfClass = new HashMap<>();
+    private final Map<String, Set<Integer>> classLines = new HashMap<>();
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier) {
+        MethodSource test = testSourceOf(testIdentifier);
+        if (test != null) {
+            // The lines recorded since the previous test belong to the class
+            harvestClassLines(test.getClassName());
+        }
+        CoverageTracker.reset();
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        MethodSource test = testSourceOf(testIdentifier);
+        if (test != null) {
+            record(test, testExecutionResult.getStatus() == TestExecutionResult.Status.SUCCESSFUL,
+                    CoverageTracker.getExecutedLines(), CoverageTracker.getTicks(), CoverageTracker.getAllocatedBytes(),
+                    CoverageTracker.isTimedOut(), CoverageTracker.isClockTimedOut());
+            CoverageTracker.reset();
+            return;
+        }
+
+        TestSource source = testIdentifier.getSource().orElse(null);
+        if (testIdentifier.isContainer() && source instanceof ClassSource classSource) {
+            String testClass = classSource.getClassName();
+            harvestClassLines(testClass);
+            for (String testName : testsOfClass.getOrDefault(testClass, List.of())) {
+                executedLines.get(testName).addAll(classLines.get(testClass));
+            }
+        }
+    }
+
+    @Override
+    public void executionSkipped(TestIdentifier testIdentifier, String reason) {
+        MethodSource test = testSourceOf(testIdentifier);
+        if (test != null) {
+            record(test, false, List.of(), 0, 0, false, false);
+        }
+    }
+
+    /**
+     * Gets the outcome of an executed test. <br>
+     *
+     * A test that was not executed (e.g., not discovered) is considered failed, with no executed line.
+     *
+     * @param testClass the test class
+     * @param methodName the name of the test method
+     * @return the {@link TestResult} of the test
+     */
+    public TestResult getResult(Class<?> testClass, String methodName) {
+        String key = testClass.getName() + "#" + methodName;
+        return new TestResult(testClass.getSimpleName() + "@" + methodName,
+                outcomes.getOrDefault(key, false),
+                new ArrayList<>(executedLines.getOrDefault(key, Set.of())),
+                ticks.getOrDefault(key, 0L), allocations.getOrDefault(key, 0L), timeouts.getOrDefault(key, false),
+                clockTimeouts.getOrDefault(key, false));
+    }
+
+    private void record(MethodSource test, boolean succeeded, List<Integer> lines, long testTicks,
+                        long allocatedBytes, boolean timedOut, boolean clockTimedOut) {
+        String testName = test.getClassName() + "#" + test.getMethodName();
+        outcomes.put(testName, succeeded);
+        executedLines.put(testName, new LinkedHashSet<>(lines));
+        ticks.put(testName, testTicks);
+        allocations.put(testName, allocatedBytes);
+        timeouts.put(testName, timedOut);
+        clockTimeouts.put(testName, clockTimedOut);
+        testsOfClass.computeIfAbsent(test.getClassName(), k -> new ArrayList<>()).add(testName);
+    }
+
+    /**
+     * Adds the lines recorded since the last reset to the lines executed by a test class outside of its tests.
+     */
+    private void harvestClassLines(String testClass) {
+        classLines.computeIfAbsent(testClass, k -> new LinkedHashSet<>()).addAll(CoverageTracker.getExecutedLines());
+    }
+
+    private static MethodSource testSourceOf(TestIdentifier testIdentifier) {
+        TestSource source = testIdentifier.getSource().orElse(null);
+        if (testIdentifier.isTest() && source instanceof MethodSource methodSource) {
+            return methodSource;
+        }
+        return null;
+    }
+}
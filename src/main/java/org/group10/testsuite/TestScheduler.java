@@ -0,0 +1,211 @@
+package org.group10.testsuite;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Orders the tests of a program so a failure happens as early as possible, from the
+ * history of the tests across the search. <br>
+ *
+ * Every test keeps how often it ran, how often it failed, and how many ticks it took
+ * (see {@link org.group10.utils.instrument.CoverageTracker#tick()}, the deterministic
+ * measure of the runtime of a test). The tests are ordered by their chance to fail per
+ * tick, so with an {@link EarlyTermination} the programs that can not be useful to the
+ * search are found out after as little work as possible. A test never seen before comes
+ * first, to learn about it. <br>
+ *
+ * The order only changes at the boundaries of the generations, see {@link #freeze()}: the
+ * programs of a generation are evaluated concurrently, and the order of their tests must
+ * not depend on which of them recorded their outcome first. Every search starts again
+ * from the statistics the scheduler was created with, see {@link #reset()}, so a search
+ * with a given seed always runs the tests in the same order. <br>
+ *
+ * The statistics can be stored to a file next to the test suite, so the next repairs of
+ * the same target start with them. The order, and so the search, then depends on the
+ * previous repairs.
+ */
+public class TestScheduler {
+    private static final String FILE_HEADER = "# ProgRepair test statistics v1";
+
+    private final Path file;
+    private final Map<String, Statistics> statistics = new HashMap<>();
+    private final Map<String, Statistics> initialStatistics = new HashMap<>();
+    private Map<String, Double> priorities = new HashMap<>();
+    private long recordedCount = 0;
+
+    private TestScheduler(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Creates a scheduler without any statistics, that are not stored anywhere.
+     *
+     * @return a {@link TestScheduler} without any statistics
+     */
+    public static TestScheduler empty() {
+        return new TestScheduler(null);
+    }
+
+    /**
+     * Loads the statistics of the tests from a file.
+     *
+     * @param file the file storing the statistics, see {@link #save()}
+     * @return a {@link TestScheduler} with the statistics of the file, or without any
+     *         statistics if the file does not exist or can not be read
+     */
+    public static TestScheduler load(Path file) {
+        TestScheduler scheduler = new TestScheduler(file);
+        if (!Files.isRegularFile(file)) {
+            return scheduler;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            if (!FILE_HEADER.equals(reader.readLine())) {
+                return scheduler;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                Statistics testStatistics = new Statistics();
+                testStatistics.runs = Long.parseLong(fields[1]);
+                testStatistics.failures = Long.parseLong(fields[2]);
+                testStatistics.ticks = Long.parseLong(fields[3]);
+                scheduler.statistics.put(fields[0], testStatistics);
+            }
+        } catch (IOException | RuntimeException e) {
+            // A damaged file only loses the history
+            scheduler.statistics.clear();
+        }
+        for (Map.Entry<String, Statistics> entry : scheduler.statistics.entrySet()) {
+            scheduler.initialStatistics.put(entry.getKey(), entry.getValue().copy());
+        }
+        scheduler.freeze();
+        return scheduler;
+    }
+
+    /**
+     * Fixes the order of the tests from the statistics recorded so far, until the next call,
+     * see {@link #order(List, Function)}. Called at the start of every generation.
+     */
+    public synchronized void freeze() {
+        priorities = new HashMap<>();
+        for (Map.Entry<String, Statistics> entry : statistics.entrySet()) {
+            priorities.put(entry.getKey(), entry.getValue().priority());
+        }
+    }
+
+    /**
+     * Forgets the statistics recorded since the scheduler was created, and fixes the order
+     * of the tests from the statistics it was created with. Called at the start of every search.
+     */
+    public synchronized void reset() {
+        statistics.clear();
+        for (Map.Entry<String, Statistics> entry : initialStatistics.entrySet()) {
+            statistics.put(entry.getKey(), entry.getValue().copy());
+        }
+        freeze();
+    }
+
+    /**
+     * Records the outcome of the tests of a program.
+     *
+     * @param testResults the outcome of the executed tests
+     */
+    public synchronized void record(List<TestResult> testResults) {
+        for (TestResult testResult : testResults) {
+            Statistics testStatistics = statistics.computeIfAbsent(testResult.getTestName(), k -> new Statistics());
+            testStatistics.runs++;
+            if (!testResult.isSucceeded()) {
+                testStatistics.failures++;
+            }
+            testStatistics.ticks += testResult.getTicks();
+        }
+        recordedCount++;
+    }
+
+    /**
+     * Orders the given tests by decreasing chance to fail per tick, as of the last
+     * {@link #freeze()}. Tests with the same priority keep their order.
+     *
+     * @param tests the tests to order
+     * @param testName gets the name of a test, in the form "{@code TestClass@testMethod}"
+     * @param <T> the type of the tests
+     * @return the ordered tests
+     */
+    public synchronized <T> List<T> order(List<T> tests, Function<T, String> testName) {
+        Map<T, Double> testPriorities = new HashMap<>();
+        for (T test : tests) {
+            testPriorities.put(test, priorities.getOrDefault(testName.apply(test), Double.MAX_VALUE));
+        }
+        List<T> orderedTests = new ArrayList<>(tests);
+        orderedTests.sort(Comparator.comparing(testPriorities::get, Comparator.reverseOrder()));
+        return orderedTests;
+    }
+
+    /**
+     * Stores the statistics of the tests to the file they were loaded from. Does nothing
+     * for a scheduler without file, see {@link #empty()}.
+     *
+     * @throws IOException if the file can not be written
+     */
+    public synchronized void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        // Written to a temporary file first, so a failed write never leaves a damaged file
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp)) {
+            writer.write(FILE_HEADER);
+            writer.newLine();
+            for (Map.Entry<String, Statistics> entry : statistics.entrySet()) {
+                Statistics testStatistics = entry.getValue();
+                writer.write(entry.getKey() + "\t" + testStatistics.runs + "\t" + testStatistics.failures
+                        + "\t" + testStatistics.ticks);
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TestScheduler tests=" + statistics.size() + ", recorded_programs=" + recordedCount
+                + ", file=" + (file != null ? file : "none");
+    }
+
+    private static class Statistics {
+        private long runs = 0;
+        private long failures = 0;
+        private long ticks = 0;
+
+        private Statistics copy() {
+            Statistics copy = new Statistics();
+            copy.runs = runs;
+            copy.failures = failures;
+            copy.ticks = ticks;
+            return copy;
+        }
+
+        /**
+         * The chance to fail (with one failure and one success assumed beforehand, so a
+         * test never failing still gets a chance), divided by the mean ticks of the test.
+         */
+        private double priority() {
+            double failureRate = (failures + 1.0) / (runs + 2.0);
+            double meanTicks = runs > 0 ? (double) ticks / runs : 0;
+            return failureRate / (1.0 + meanTicks);
+        }
+    }
+}
@@ -1,35 +1,46 @@
 package org.group10.testsuite;
 
 import org.group10.program.Program;
-import org.group10.utils.DummyOutputStream;
-import org.group10.utils.FolderCleaner;
+import org.group10.utils.cache.BytecodeCache;
+import org.group10.utils.cache.EvaluationCache;
+import org.group10.utils.cache.SourceFingerprint;
+import org.group10.utils.compiler.ApiFingerprint;
+import org.group10.utils.compiler.BatchJavaCompiler;
+import org.group10.utils.compiler.CompilationResult;
+import org.group10.utils.compiler.CompileExecutor;
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.group10.utils.compiler.IncrementalCompiler;
+import org.group10.utils.compiler.SyntacticPreScreen;
 import org.group10.utils.instrument.CoverageInstrumenter;
 import org.group10.utils.instrument.CoverageTracker;
 import org.group10.utils.instrument.InstrumentingClassLoader;
+import org.group10.utils.instrument.SharedClassLoader;
+import org.group10.utils.instrument.SharedStateDetector;
 import org.junit.jupiter.api.Test;
-import org.junit.platform.launcher.Launcher;
+import org.junit.platform.engine.DiscoverySelector;
 import org.junit.platform.launcher.LauncherDiscoveryRequest;
-import org.junit.platform.launcher.LauncherSession;
 import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
-import org.junit.platform.launcher.core.LauncherFactory;
-import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
 
-import javax.tools.JavaCompiler;
-import javax.tools.ToolProvider;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.lang.reflect.Method;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
 
@@ -42,8 +53,68 @@ import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMetho
  * It supports both silent execution and execution with logs.
  */
 public class TestSuite {
+    /**
+     * Default tick budget of a test, as a multiple of the ticks of the slowest test on the original program.
+     * The ticks are not counted by default, as counting them slows down every test.
+     */
+    public static final double DEFAULT_TICK_BUDGET_FACTOR = 0;
+
+    /**
+     * Minimum tick budget of a test, so the tests that are fast on the original program
+     * still have room for a fix doing more work.
+     */
+    public static final long MIN_TICK_BUDGET = 1_000_000;
+
+    /**
+     * Default allocation budget of a test, as a multiple of the bytes allocated by the most
+     * allocating test on the original program. There is no allocation budget by default.
+     */
+    public static final double DEFAULT_ALLOCATION_BUDGET_FACTOR = 0;
+
+    /**
+     * Minimum allocation budget of a test in bytes, so the tests allocating little on the
+     * original program still have room for a fix allocating more, and for the garbage of
+     * the first executions (class initialization, profiling, ...).
+     */
+    public static final long MIN_ALLOCATION_BUDGET = 64L << 20;
+
+    /**
+     * Default wall-clock timeout of a test in milliseconds. There is no timeout by default,
+     * so the tests run on the current thread, see {@link TestDeadline}.
+     */
+    public static final long DEFAULT_TEST_TIMEOUT_MILLIS = 0;
+
+    private final String path;
     private final List<String> codes = new ArrayList<>();
-    private List<String> testClasses = new ArrayList<>();
+    private EvaluationCache cache = new EvaluationCache(EvaluationCache.DEFAULT_MAX_SIZE_IN_BYTES);
+    private final BytecodeCache bytecodeCache = new BytecodeCache(BytecodeCache.DEFAULT_MAX_ENTRIES);
+    private volatile CompiledTestClasses compiledTestClasses;
+    private final AtomicLong testClassesReuseCount = new AtomicLong();
+    private final AtomicLong jointCompileCount = new AtomicLong();
+    private ExecutorService testExecutor;
+    private volatile TestWorkerPool workerPool;
+    private double tickBudgetFactor = DEFAULT_TICK_BUDGET_FACTOR;
+    private long testTimeoutMillis = DEFAULT_TEST_TIMEOUT_MILLIS;
+    private volatile long tickBudget = 0;
+    private double allocationBudgetFactor = DEFAULT_ALLOCATION_BUDGET_FACTOR;
+    private volatile long allocationBudget = 0;
+    private final AtomicLong timedOutTestCount = new AtomicLong();
+    private final AtomicLong timedOutProgramCount = new AtomicLong();
+    private final AtomicLong overAllocatedTestCount = new AtomicLong();
+    private volatile EarlyTermination earlyTermination;
+    private volatile int baselineTestCount = -1;
+    private final AtomicLong earlyStoppedProgramCount = new AtomicLong();
+    private final AtomicLong skippedTestCount = new AtomicLong();
+    private volatile boolean regressionTestSelection = false;
+    private volatile boolean verifyTestSelection = false;
+    private final AtomicLong selectedProgramCount = new AtomicLong();
+    private final AtomicLong unexecutedProgramCount = new AtomicLong();
+    private final AtomicLong rerunTestCount = new AtomicLong();
+    private final AtomicLong inheritedTestCount = new AtomicLong();
+    private final AtomicLong verifiedProgramCount = new AtomicLong();
+    private final AtomicLong mismatchedProgramCount = new AtomicLong();
+    private volatile TestScheduler testScheduler;
+    private volatile LauncherSessionPool launcherSessions = new LauncherSessionPool(true);
 
     /**
      * Constructs a {@link TestSuite} from a Java test file. <br>
@@ -54,6 +125,7 @@ public class TestSuite {
      * @param path the path to the Java test file
      */
     public TestSuite(String path) {
+        this.path = path;
         try (BufferedReader br = new BufferedReader(new FileReader(path))) {
             String line;
             while ((line = br.readLine()) != null) {
@@ -92,139 +164,697 @@ public class TestSuite {
             return;
         }
 
-        long id = ProcessHandle.current().pid();
-        Path outputDir = Files.createTempDirectory(targetProgram.getClassName() + id + "compiled_");
-        compile(outputDir, targetProgram, withLog);
+        List<TestResult> testResults = cache.getTestResults(targetProgram.getClassName(), targetProgram.getCodes());
+        if (testResults == null) {
+            // Different sources compiling to the same classes share the outcome of their tests
+            String bytecodeKey = BytecodeCache.key(targetProgram.getCompilationResult().getClasses());
+            testResults = bytecodeCache.getTestResults(bytecodeKey, () -> {
+                List<TestResult> results = runTests(targetProgram, withLog);
+                TestScheduler scheduler = testScheduler;
+                if (scheduler != null) {
+                    scheduler.record(results);
+                }
+                recordTimeouts(results);
+                recordSkippedTests(results);
+                return results;
+            }, this::isCacheable);
+            if (isCacheable(testResults)) {
+                cache.putTestResults(targetProgram.getClassName(), targetProgram.getCodes(), testResults);
+            }
+        }
+        recordBaseline(testResults);
+        int skippedCount = Math.max(0, baselineTestCount - testResults.size());
+        targetProgram.setSkippedTestCount(skippedCount);
 
-        ClassLoader loader = loadClasses(outputDir);
+        int successCount = 0;
+        int failedCount = 0;
 
-        try (LauncherSession session = LauncherFactory.openSession()) {
-            SummaryGeneratingListener listener = new SummaryGeneratingListener();
-            Launcher launcher = session.getLauncher();
-            launcher.registerTestExecutionListeners(listener);
-//            List<String> positiveTests = new ArrayList<>();
-//            List<String> negativeTests = new ArrayList<>();
-            int successCount = 0;
-            int failedCount = 0;
+        if (withLog) {
+            System.out.println("==========================");
+            System.out.println("TEST SUMMARY: " + targetProgram.getClassName());
+            System.out.println("==========================");
+        }
 
+        for (TestResult testResult : testResults) {
             if (withLog) {
-                System.out.println("==========================");
-                System.out.println("TEST SUMMARY: " + targetProgram.getClassName());
-                System.out.println("==========================");
+                System.out.print("Executing test " + testResult.getTestName() + ": ");
             }
 
-            for (String testClassName : testClasses) {
-                Class<?> testClass = loader.loadClass(testClassName);
-                List<Method> testMethods = Arrays.stream(testClass.getDeclaredMethods())
-                        .filter(m -> m.isAnnotationPresent(Test.class))
-                        .toList();
-
-                for (Method m : testMethods) {
-                    CoverageTracker.reset();
-                    String testName = testClass.getSimpleName() + "@" + m.getName();
-                    if (withLog) {
-                        System.out.print("Executing test " + testName + ": ");
-                    }
-                    LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
-                            .selectors(selectMethod(testClass, m.getName()))
-                            .build();
-                    launcher.execute(request);
-
-                    boolean isSucceed = (listener.getSummary().getTestsSucceededCount() == 1);
-
-                    if (isSucceed) {
-                        recordSuccessResult(targetProgram, testName);
-                        successCount++;
-                        if (withLog) {
-                            System.out.println("✅");
-                        }
-                    } else {
-                        recordFailedResult(targetProgram, testName);
-                        failedCount++;
-                        if (withLog) {
-                            System.out.println("❌");
+            String statistics = (tickBudgetFactor > 0 ? testResult.getTicks() + " ticks, " : "")
+                    + testResult.getAllocatedBytes() / 1024 + " KB allocated";
+            if (testResult.isSucceeded()) {
+                recordSuccessResult(targetProgram, testResult);
+                successCount++;
+                if (withLog) {
+                    System.out.println("✅ (" + statistics + ")");
+                }
+            } else {
+                recordFailedResult(targetProgram, testResult);
+                failedCount++;
+                if (withLog) {
+                    String reason = isOverAllocated(testResult) ? "allocation budget exceeded, "
+                            : testResult.isTimedOut() ? "timed out, " : "";
+                    System.out.println("❌ (" + reason + statistics + ")");
+                }
+            }
+        }
+
+        if (withLog) {
+            System.out.println((successCount + failedCount) + " tests executed");
+            System.out.println(successCount + " tests successful");
+            System.out.println(failedCount + " tests failed");
+            if (skippedCount > 0) {
+                System.out.println("Stopped early after " + (successCount + failedCount) + " of " + baselineTestCount
+                        + " tests: the remaining tests can not make the program useful");
+            }
+            System.out.println("==========================");
+        }
+    }
+
+    /**
+     * Executes some tests of this test suite on a given {@link Program}, e.g., a sample of the tests. <br>
+     *
+     * Unlike {@link #executeTests(Program, boolean)}, the statistics of the program are not
+     * updated, and the outcome is only stored to the caches when all the tests had to run
+     * anyway (in a worker JVM, see {@link #setWorkerPool(TestWorkerPool)}). The selected tests
+     * are looked up in the outcome of all the tests in the caches first.
+     *
+     * @param targetProgram the program on which tests will be executed
+     * @param testNames the names of the tests to run, in the form "{@code TestClass@testMethod}"
+     * @return the outcome of every executed test, none if the program is not compilable
+     * @throws Exception if any reflection error occurs
+     */
+    public List<TestResult> executeTests(Program targetProgram, Set<String> testNames) throws Exception {
+        try {
+            targetProgram.tryCompile(false);
+        } catch (Exception e) {
+            return new ArrayList<>();
+        }
+
+        List<TestResult> testResults = cache.getTestResults(targetProgram.getClassName(), targetProgram.getCodes());
+        if (testResults == null) {
+            Map<String, byte[]> classes = targetProgram.getCompilationResult().getClasses();
+            String bytecodeKey = BytecodeCache.key(classes);
+            testResults = bytecodeCache.peekTestResults(bytecodeKey);
+            TestWorkerPool pool = workerPool;
+            if (testResults == null && pool == null) {
+                return runTests(classes, testExecutor, launcherSessions, tickBudgetFactor > 0, getBudget(), null,
+                        testNames, null);
+            }
+            if (testResults == null) {
+                testResults = bytecodeCache.getTestResults(bytecodeKey, () -> {
+                    List<TestResult> results = pool.runTests(classes, tickBudgetFactor > 0, getBudget());
+                    recordTimeouts(results);
+                    return results;
+                }, this::isCacheable);
+            }
+            if (isCacheable(testResults)) {
+                cache.putTestResults(targetProgram.getClassName(), targetProgram.getCodes(), testResults);
+            }
+        }
+        return testResults.stream()
+                .filter(testResult -> testNames.contains(testResult.getTestName()))
+                .toList();
+    }
+
+    /**
+     * Runs every test of this test suite on the compiled classes of a given {@link Program}. <br>
+     *
+     * The test classes supported by the {@link ReflectiveTestRunner} are executed directly,
+     * concurrently if enabled (see {@link #setTestWorkers(int)}) and if the tests do not
+     * share static state.
+     * The test methods of the other ones are discovered and executed by a single launcher
+     * execution, the {@link TestResultListener} splitting the outcome and coverage between
+     * the tests. <br>
+     *
+     * Every test runs within its budget, see {@link #setTestBudget(double, long)}, and the
+     * tests may stop early, see {@link #setEarlyTermination(EarlyTermination)}.
+     *
+     * @param targetProgram the (compilable) program on which tests will be executed
+     * @param withLog a boolean flag to print compilation logs
+     * @return the outcome of every executed test
+     * @throws Exception if any reflection error occurs
+     */
+    private List<TestResult> runTests(Program targetProgram, boolean withLog) throws Exception {
+        CompilationResult compilationResult = targetProgram.getCompilationResult();
+        if (!compilationResult.isSuccessful() && withLog) {
+            compilationResult.printDiagnostics();
+            System.err.println("Test Suite compile failure");
+        }
+
+        boolean countTicks = tickBudgetFactor > 0;
+        TestWorkerPool pool = workerPool;
+        if (pool != null) {
+            return pool.runTests(compilationResult.getClasses(), countTicks, getBudget());
+        }
+        if (regressionTestSelection) {
+            List<TestResult> testResults = runSelectedTests(targetProgram, compilationResult.getClasses(), countTicks);
+            if (testResults != null) {
+                return testResults;
+            }
+        }
+        return runTests(compilationResult.getClasses(), testExecutor, launcherSessions, countTicks, getBudget(),
+                earlyTermination, null, testScheduler);
+    }
+
+    /**
+     * Runs only the tests of a program that may behave differently than on its closest
+     * compiled ancestor, see {@link RegressionTestSelector}, the other tests inheriting
+     * their outcome from the ancestor. <br>
+     *
+     * The selection needs the outcome of every test of the ancestor in the
+     * {@link EvaluationCache}, and tests that do not share static state, as skipping a
+     * test could otherwise change the outcome of the next ones. In verification mode,
+     * every test runs anyway, and the outcome of the selection is checked against it.
+     *
+     * @param targetProgram the (compilable) program on which tests will be executed
+     * @param classes the compiled classes of the program and of the test suite
+     * @param countTicks {@code true} to count the ticks of the tests
+     * @return the outcome of every test, or {@code null} if every test has to run
+     * @throws Exception if any reflection error occurs
+     */
+    private List<TestResult> runSelectedTests(Program targetProgram, Map<String, byte[]> classes, boolean countTicks)
+            throws Exception {
+        List<String> ancestorCodes = targetProgram.getCompiledAncestorCodes();
+        if (ancestorCodes == null) {
+            return null;
+        }
+        List<TestResult> ancestorResults = cache.getTestResults(targetProgram.getClassName(), ancestorCodes);
+        if (ancestorResults == null || ancestorResults.size() < baselineTestCount
+                || SharedStateDetector.sharesStaticState(classes.values())) {
+            return null;
+        }
+        RegressionTestSelector.Selection selection =
+                RegressionTestSelector.select(ancestorCodes, ancestorResults, targetProgram.getCodes());
+        if (selection == null) {
+            return null;
+        }
+
+        List<TestResult> rerunResults = selection.testsToRun().isEmpty() ? List.of()
+                : runTests(classes, testExecutor, launcherSessions, countTicks, getBudget(), null,
+                        selection.testsToRun(), null);
+        List<TestResult> testResults = selection.merge(rerunResults);
+        selectedProgramCount.incrementAndGet();
+        rerunTestCount.addAndGet(rerunResults.size());
+        inheritedTestCount.addAndGet(testResults.size() - rerunResults.size());
+        if (rerunResults.isEmpty()) {
+            unexecutedProgramCount.incrementAndGet();
+        }
+
+        if (verifyTestSelection) {
+            List<TestResult> allResults = runTests(classes, testExecutor, launcherSessions, countTicks, getBudget(),
+                    null, null, null);
+            verifiedProgramCount.incrementAndGet();
+            if (!sameOutcome(testResults, allResults)) {
+                mismatchedProgramCount.incrementAndGet();
+                System.err.println("Regression test selection mismatch on a program derived from the ancestor "
+                        + SourceFingerprint.key(targetProgram.getClassName(), ancestorCodes));
+            }
+            return allResults;
+        }
+        return testResults;
+    }
+
+    /**
+     * Checks whether two outcomes have the same tests, with the same verdicts and the same coverage.
+     */
+    private static boolean sameOutcome(List<TestResult> selectedResults, List<TestResult> allResults) {
+        Map<String, TestResult> selectedByName = new LinkedHashMap<>();
+        for (TestResult result : selectedResults) {
+            selectedByName.put(result.getTestName(), result);
+        }
+        if (selectedByName.size() != allResults.size()) {
+            return false;
+        }
+        for (TestResult result : allResults) {
+            TestResult selected = selectedByName.get(result.getTestName());
+            if (selected == null || selected.isSucceeded() != result.isSucceeded()
+                    || !new HashSet<>(selected.getExecutedLines()).equals(new HashSet<>(result.getExecutedLines()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private CoverageTracker.Budget getBudget() {
+        return new CoverageTracker.Budget(tickBudget, testTimeoutMillis, allocationBudget);
+    }
+
+    /**
+     * Runs every test of the given compiled classes in the current JVM, see {@link #runTests(Program, boolean)}.
+     *
+     * @param classes the compiled classes of the program and of the test suite
+     * @param testExecutor the {@link ExecutorService} running the tests concurrently, or {@code null}
+     * @param launcherSessions the {@link LauncherSessionPool} executing the tests not supported by
+     *                         the {@link ReflectiveTestRunner}
+     * @param countTicks {@code true} to count the ticks of the tests, see {@link CoverageTracker#tick()}
+     * @param budget the {@link CoverageTracker.Budget} of every test
+     * @param earlyTermination the {@link EarlyTermination} of the tests, or {@code null} to run them all
+     * @param selectedTests the names of the tests to run, or {@code null} to run them all
+     * @param testScheduler the {@link TestScheduler} ordering the tests run after the priority tests
+     *                      with early termination, or {@code null} to keep the declaration order
+     * @return the outcome of every executed test
+     * @throws Exception if any reflection error occurs
+     */
+    static List<TestResult> runTests(Map<String, byte[]> classes, ExecutorService testExecutor,
+                                     LauncherSessionPool launcherSessions, boolean countTicks,
+                                     CoverageTracker.Budget budget, EarlyTermination earlyTermination,
+                                     Set<String> selectedTests, TestScheduler testScheduler) throws Exception {
+        CoverageTracker.Budget previousBudget = CoverageTracker.getBudget();
+        CoverageTracker.setBudget(budget);
+        try {
+            return runTests(classes, testExecutor, launcherSessions, countTicks, earlyTermination, selectedTests,
+                    testScheduler);
+        } finally {
+            CoverageTracker.setBudget(previousBudget);
+        }
+    }
+
+    private static List<TestResult> runTests(Map<String, byte[]> classes, ExecutorService testExecutor,
+                                             LauncherSessionPool launcherSessions, boolean countTicks,
+                                             EarlyTermination earlyTermination, Set<String> selectedTests,
+                                             TestScheduler testScheduler) throws Exception {
+        // Every program gets its own class loader, so programs evaluated concurrently are isolated
+        List<String> testClasses = new ArrayList<>();
+        ClassLoader loader = loadClasses(classes, testClasses, countTicks);
+        List<TestResult> testResults = new ArrayList<>();
+
+        // The test classes ReflectiveTestRunner supports are executed directly, the other ones
+        // with a single discovery and execution for all their test methods, see TestResultListener
+        Map<Class<?>, List<Method>> testMethodsOfClass = new LinkedHashMap<>();
+        Map<Class<?>, List<TestResult>> reflectiveResults = new LinkedHashMap<>();
+        List<DiscoverySelector> selectors = new ArrayList<>();
+        // With early termination, the tests of ReflectiveTestRunner that are not priority tests
+        // are deferred, to run once the priority tests are done
+        Map<Method, Class<?>> deferredTests = new LinkedHashMap<>();
+        Set<String> priorityTests = earlyTermination != null ? earlyTermination.getPriorityTests() : Set.of();
+        Boolean parallel = null;
+        for (String testClassName : testClasses) {
+            Class<?> testClass = loader.loadClass(testClassName);
+            List<Method> testMethods = Arrays.stream(testClass.getDeclaredMethods())
+                    .filter(m -> m.isAnnotationPresent(Test.class))
+                    .filter(m -> selectedTests == null
+                            || selectedTests.contains(testClass.getSimpleName() + "@" + m.getName()))
+                    .toList();
+            testMethodsOfClass.put(testClass, testMethods);
+            if (ReflectiveTestRunner.supports(testClass)) {
+                if (parallel == null) {
+                    // Tests sharing static state observe each other, so they run one after the other
+                    parallel = testExecutor != null
+                            && !SharedStateDetector.sharesStaticState(classes.values());
+                }
+                List<Method> testsToRun = testMethods;
+                if (earlyTermination != null) {
+                    testsToRun = new ArrayList<>();
+                    for (Method m : testMethods) {
+                        if (priorityTests.contains(testClass.getSimpleName() + "@" + m.getName())) {
+                            testsToRun.add(m);
+                        } else {
+                            deferredTests.put(m, testClass);
                         }
                     }
                 }
+                reflectiveResults.put(testClass,
+                        ReflectiveTestRunner.run(testClass, testsToRun, parallel ? testExecutor : null));
+                continue;
+            }
+            for (Method m : testMethods) {
+                selectors.add(selectMethod(testClass, m.getName()));
             }
+        }
 
-            if (withLog) {
-                System.out.println((successCount + failedCount) + " tests executed");
-                System.out.println(successCount + " tests successful");
-                System.out.println(failedCount + " tests failed");
-                System.out.println("==========================");
+        TestResultListener listener = new TestResultListener();
+        boolean launcherFinished = true;
+        if (!selectors.isEmpty()) {
+            LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                    .selectors(selectors)
+                    .build();
+            // A single execution runs all the tests, so it gets the timeout of all of them
+            CoverageTracker.Budget budget = CoverageTracker.getBudget();
+            launcherFinished = TestDeadline.call(() -> {
+                CoverageTracker.setBudget(budget);
+                launcherSessions.execute(request, listener);
+                return true;
+            }, budget.timeoutMillis() * selectors.size(), () -> false);
+        }
+
+        for (Map.Entry<Class<?>, List<Method>> entry : testMethodsOfClass.entrySet()) {
+            if (reflectiveResults.containsKey(entry.getKey())) {
+                testResults.addAll(reflectiveResults.get(entry.getKey()));
+                continue;
+            }
+            for (Method m : entry.getValue()) {
+                // The listener of an abandoned execution may still be written to
+                testResults.add(launcherFinished ? listener.getResult(entry.getKey(), m.getName())
+                        : TestResult.clockTimedOut(entry.getKey().getSimpleName() + "@" + m.getName()));
+            }
+        }
+
+        // The bound a program stops on depends on the tests run before, so the order is fixed:
+        // by test name, then by the scheduler (which keeps the order of the tests it can not tell apart)
+        List<Map.Entry<Method, Class<?>>> orderedTests = new ArrayList<>(deferredTests.entrySet());
+        orderedTests.sort(Comparator.comparing(
+                (Map.Entry<Method, Class<?>> test) -> test.getValue().getSimpleName() + "@" + test.getKey().getName()));
+        if (testScheduler != null) {
+            orderedTests = testScheduler.order(orderedTests,
+                    test -> test.getValue().getSimpleName() + "@" + test.getKey().getName());
+        }
+        // The deferred tests run in batches of one test per worker, the bound being checked between batches
+        ExecutorService deferredExecutor = Boolean.TRUE.equals(parallel) ? testExecutor : null;
+        int batchSize = deferredExecutor instanceof ThreadPoolExecutor pool ? pool.getMaximumPoolSize() : 1;
+        int remainingCount = orderedTests.size();
+        for (int start = 0; start < orderedTests.size(); start += batchSize) {
+            if (earlyTermination != null && earlyTermination.canSkipRemainingTests(testResults, remainingCount)) {
+                break;
+            }
+            List<Map.Entry<Method, Class<?>>> batch =
+                    orderedTests.subList(start, Math.min(start + batchSize, orderedTests.size()));
+            Map<Class<?>, List<Method>> batchMethodsOfClass = new LinkedHashMap<>();
+            for (Map.Entry<Method, Class<?>> deferredTest : batch) {
+                batchMethodsOfClass.computeIfAbsent(deferredTest.getValue(), k -> new ArrayList<>())
+                        .add(deferredTest.getKey());
+            }
+            for (Map.Entry<Class<?>, List<Method>> entry : batchMethodsOfClass.entrySet()) {
+                testResults.addAll(ReflectiveTestRunner.run(entry.getKey(), entry.getValue(), deferredExecutor));
             }
+            remainingCount -= batch.size();
+        }
+
+        return testResults;
+    }
+
+    /**
+     * Compiles the given {@link Program} incrementally against its closest compiled ancestor.
+     *
+     * @param targetProgram the program to compile with the test suite
+     * @return the {@link CompilationResult} of the program and the test suite, or {@code null}
+     *         if the program has no compiled ancestor or can not be compiled incrementally
+     */
+    private CompilationResult compileIncrementally(Program targetProgram) {
+        Program ancestor = targetProgram.getCompiledAncestor();
+        if (ancestor == null) {
+            return null;
         }
-        FolderCleaner.cleanTmpDir(targetProgram.getClassName());
+        return IncrementalCompiler.compile(targetProgram.getClassName(), ancestor.getCodes(),
+                ancestor.getCompilationResult(), targetProgram.getCodes());
     }
 
-    private void compile(Path outputDir, Program targetProgram, boolean withLog) throws Exception {
-        Path targetProgramFile = outputDir.resolve(targetProgram.getClassName() + ".java");
-        Files.write(targetProgramFile, targetProgram.getCodes());
-        Path testFile = outputDir.resolve(targetProgram.getClassName() + "Test.java");
-        Files.write(testFile, codes);
-        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    /**
+     * Gets how often the test classes compiled once were reused, see {@link #compile(Program)}.
+     *
+     * @return the number of programs compiled alone and of programs compiled with the test suite
+     */
+    public String getTestClassesSummary() {
+        return "reused=" + testClassesReuseCount.get() + ", joint_compiles=" + jointCompileCount.get();
+    }
 
-        if (compiler == null) {
-            FolderCleaner.cleanTmpDir(targetProgram.getClassName());
-            throw new IllegalStateException("No Java compiler available (JRE instead of JDK)");
+    /**
+     * Checks whether the given {@link Program} compiles, without generating any class
+     * file. <br>
+     *
+     * The source first goes through the {@link SyntacticPreScreen}, and only the sources
+     * it accepts get an analysis-only check, see {@link InMemoryJavaCompiler#check(Map)}. <br>
+     *
+     * The program is checked on its own, as the errors of the test suite do not make
+     * the program itself not compilable. The verdict is looked up in (and stored to)
+     * the {@link EvaluationCache} of the test suite first.
+     *
+     * @param targetProgram the program to check
+     * @return {@code true} if the program compiles, {@code false} otherwise
+     */
+    public boolean isCompilable(Program targetProgram) {
+        Boolean compilable = cache.getCompilable(targetProgram.getClassName(), targetProgram.getCodes());
+        if (compilable == null) {
+            compilable = SyntacticPreScreen.accepts(targetProgram.getCodes())
+                    && InMemoryJavaCompiler.check(Map.of(targetProgram.getClassName(), targetProgram.getCodes()));
+            cache.putCompilable(targetProgram.getClassName(), targetProgram.getCodes(), compilable);
         }
+        return compilable;
+    }
 
-        // dummyOutputStream so the compiler error or warning does not go out
-        OutputStream dummyOutputStream = withLog ? null : new DummyOutputStream();
+    /**
+     * Compiles the given {@link Program} together with this test suite in a single
+     * compilation task. <br>
+     *
+     * The outcome is looked up in (and stored to) the {@link EvaluationCache} of the
+     * test suite first. Then, if an ancestor of the program compiled, only the top-level
+     * types that changed are recompiled, see {@link IncrementalCompiler}. Otherwise the
+     * program is compiled alone, and reuses the test classes compiled against the first
+     * program (see {@link #withTestClasses(CompilationResult)}). Use
+     * {@link Program#getCompilationResult()} instead, which also memoizes the outcome
+     * on the program.
+     *
+     * @param targetProgram the program to compile with the test suite
+     * @return the {@link CompilationResult} of the program and the test suite
+     */
+    public CompilationResult compile(Program targetProgram) {
+        CompilationResult result = cache.getCompilationResult(targetProgram.getClassName(), targetProgram.getCodes());
+        if (result != null) {
+            return result;
+        }
 
-        int result = compiler.run(
-                null,
-                dummyOutputStream,
-                dummyOutputStream,
-                "-g",
-                "-d", outputDir.toString(),
-                targetProgramFile.toString(),
-                testFile.toString()
-        );
+        result = compileIncrementally(targetProgram);
+        if (result == null && compiledTestClasses != null) {
+            Map<String, List<String>> programSource = Map.of(targetProgram.getClassName(), targetProgram.getCodes());
+            result = withTestClasses(InMemoryJavaCompiler.compile(programSource));
+        }
+        if (result == null) {
+            result = compileJointly(targetProgram);
+        }
+        cache.putCompilationResult(targetProgram.getClassName(), targetProgram.getCodes(), result);
+        return result;
+    }
 
-        if (result != 0) {
-            if (withLog) {
-                System.err.println("Test Suite compile failure");
+    /**
+     * Compiles the given {@link Program} together with this test suite in a single compilation task. <br>
+     *
+     * The test classes of the first program that compiles with the test suite are kept,
+     * so the next programs can be compiled alone, see {@link #withTestClasses(CompilationResult)}.
+     */
+    private CompilationResult compileJointly(Program targetProgram) {
+        jointCompileCount.incrementAndGet();
+        CompilationResult result = InMemoryJavaCompiler.compile(getSources(targetProgram));
+        if (result.isSuccessful()) {
+            keepTestClasses(targetProgram.getClassName(), result.getClasses());
+        }
+        return result;
+    }
+
+    /**
+     * Keeps the test classes compiled against a program, with the API of the program
+     * classes they refer to. Only the first test classes kept are used.
+     *
+     * @param className the name of the top-level class of the program
+     * @param classes the classes of the program and of the test suite
+     */
+    private synchronized void keepTestClasses(String className, Map<String, byte[]> classes) {
+        if (compiledTestClasses != null) {
+            return;
+        }
+
+        String testClassName = className + "Test";
+        Map<String, byte[]> testClasses = new LinkedHashMap<>();
+        Map<String, byte[]> programClasses = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> compiledClass : classes.entrySet()) {
+            String name = compiledClass.getKey();
+            if (name.equals(testClassName) || name.startsWith(testClassName + "$")) {
+                testClasses.put(name, compiledClass.getValue());
+            } else {
+                programClasses.put(name, compiledClass.getValue());
+            }
+        }
+
+        Set<String> testedClasses = new HashSet<>(ApiFingerprint.referencedClasses(testClasses.values()));
+        testedClasses.retainAll(programClasses.keySet());
+        compiledTestClasses = new CompiledTestClasses(testClasses, testedClasses,
+                ApiFingerprint.of(programClasses, testedClasses));
+    }
+
+    /**
+     * Completes the compilation outcome of a program compiled alone with the test classes
+     * compiled once, see {@link #keepTestClasses(String, Map)}. <br>
+     *
+     * The test classes are only valid if the program classes they refer to kept the same
+     * API (see {@link ApiFingerprint}), otherwise the program has to be compiled together
+     * with the test suite again. A program that fails to compile alone has errors in its
+     * own source, which is the verdict of the joint compilation as well.
+     *
+     * @param programResult the {@link CompilationResult} of the program compiled alone
+     * @return the {@link CompilationResult} of the program and the test suite, or {@code null}
+     *         if the API referenced by the tests changed
+     */
+    private CompilationResult withTestClasses(CompilationResult programResult) {
+        if (!programResult.isSuccessful()) {
+            return programResult;
+        }
+        CompiledTestClasses testClasses = compiledTestClasses;
+        if (!ApiFingerprint.of(programResult.getClasses(), testClasses.testedClasses()).equals(testClasses.testedApi())) {
+            return null;
+        }
+
+        testClassesReuseCount.incrementAndGet();
+        Map<String, byte[]> classes = new LinkedHashMap<>(programResult.getClasses());
+        classes.putAll(testClasses.classes());
+        return new CompilationResult(true, programResult.getDiagnostics(),
+                programResult.getSourcesWithErrors(), classes);
+    }
+
+    /**
+     * Compiles many programs together with this test suite, with as few compilation
+     * tasks as possible. <br>
+     *
+     * The programs already in the {@link EvaluationCache} are not compiled again, and
+     * duplicated programs are only compiled once. The others are compiled incrementally
+     * when possible, or else with {@link BatchJavaCompiler}, {@code batchSize} programs per
+     * compilation task, alone once the test classes have been compiled (see
+     * {@link #compile(Program)}). <br>
+     *
+     * The compilation tasks are spread over the workers of the {@link CompileExecutor}: the
+     * programs are split in at most {@code batchSize} programs per worker. Until the test
+     * classes are compiled, the tasks are run one after the other, so the test classes
+     * are only compiled once.
+     *
+     * @param targetPrograms the programs to compile with the test suite
+     * @param batchSize the maximum number of programs compiled in one compilation task
+     * @param executor the {@link CompileExecutor} running the compilation tasks
+     * @return the {@link CompilationResult} of every program, in the same order as {@code targetPrograms}
+     */
+    public List<CompilationResult> compileAll(List<Program> targetPrograms, int batchSize, CompileExecutor executor) {
+        CompilationResult[] results = new CompilationResult[targetPrograms.size()];
+        Map<Integer, CompletableFuture<CompilationResult>> incremental = new LinkedHashMap<>();
+
+        for (int i = 0; i < targetPrograms.size(); i++) {
+            Program targetProgram = targetPrograms.get(i);
+            results[i] = cache.getCompilationResult(targetProgram.getClassName(), targetProgram.getCodes());
+            if (results[i] == null) {
+                incremental.put(i, executor.submit(() -> compileIncrementally(targetProgram)));
+            }
+        }
+
+        Map<String, Integer> toCompile = new LinkedHashMap<>();
+        List<Integer> duplicates = new ArrayList<>();
+        for (Map.Entry<Integer, CompletableFuture<CompilationResult>> entry : incremental.entrySet()) {
+            int i = entry.getKey();
+            Program targetProgram = targetPrograms.get(i);
+            results[i] = CompileExecutor.await(entry.getValue());
+            if (results[i] != null) {
+                cache.putCompilationResult(targetProgram.getClassName(), targetProgram.getCodes(), results[i]);
+                continue;
+            }
+
+            String key = SourceFingerprint.key(targetProgram.getClassName(), targetProgram.getCodes());
+            if (toCompile.putIfAbsent(key, i) != null) {
+                duplicates.add(i);
+            }
+        }
+
+        List<Integer> indexes = new ArrayList<>(toCompile.values());
+        int chunkSize = Math.max(1, Math.min(batchSize,
+                (indexes.size() + executor.getWorkers() - 1) / executor.getWorkers()));
+        Map<List<Integer>, CompletableFuture<List<CompilationResult>>> chunkResults = new LinkedHashMap<>();
+        for (int start = 0; start < indexes.size(); start += chunkSize) {
+            List<Integer> chunk = indexes.subList(start, Math.min(start + chunkSize, indexes.size()));
+            if (compiledTestClasses == null) {
+                chunkResults.put(chunk, CompletableFuture.completedFuture(compileChunk(targetPrograms, chunk)));
+            } else {
+                chunkResults.put(chunk, executor.submit(() -> compileChunk(targetPrograms, chunk)));
+            }
+        }
+        for (Map.Entry<List<Integer>, CompletableFuture<List<CompilationResult>>> entry : chunkResults.entrySet()) {
+            List<CompilationResult> chunkResult = CompileExecutor.await(entry.getValue());
+            for (int j = 0; j < entry.getKey().size(); j++) {
+                results[entry.getKey().get(j)] = chunkResult.get(j);
+            }
+        }
+
+        for (int i : duplicates) {
+            Program targetProgram = targetPrograms.get(i);
+            results[i] = compile(targetProgram);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Compiles some programs together with this test suite in a single compilation task,
+     * see {@link #compileAll(List, int, CompileExecutor)}.
+     *
+     * @param targetPrograms the programs to compile with the test suite
+     * @param chunk the indexes of the programs to compile
+     * @return the {@link CompilationResult} of every program of the chunk, in the same order as {@code chunk}
+     */
+    private List<CompilationResult> compileChunk(List<Program> targetPrograms, List<Integer> chunk) {
+        // Once the test classes are compiled, the programs are compiled alone
+        boolean alone = compiledTestClasses != null;
+        List<Map<String, List<String>>> sources = chunk.stream()
+                .map(i -> alone
+                        ? Map.of(targetPrograms.get(i).getClassName(), targetPrograms.get(i).getCodes())
+                        : getSources(targetPrograms.get(i)))
+                .toList();
+        List<CompilationResult> chunkResults = new ArrayList<>(BatchJavaCompiler.compile(sources));
+
+        for (int j = 0; j < chunk.size(); j++) {
+            Program targetProgram = targetPrograms.get(chunk.get(j));
+            CompilationResult result = chunkResults.get(j);
+            if (alone) {
+                result = withTestClasses(result);
+                if (result == null) {
+                    result = compileJointly(targetProgram);
+                }
+            } else {
+                jointCompileCount.incrementAndGet();
+                if (result.isSuccessful()) {
+                    keepTestClasses(targetProgram.getClassName(), result.getClasses());
+                }
+            }
+            chunkResults.set(j, result);
+            cache.putCompilationResult(targetProgram.getClassName(), targetProgram.getCodes(), result);
+        }
+        return chunkResults;
+    }
+
+    private Map<String, List<String>> getSources(Program targetProgram) {
+        Map<String, List<String>> sources = new LinkedHashMap<>();
+        sources.put(targetProgram.getClassName(), targetProgram.getCodes());
+        sources.put(targetProgram.getClassName() + "Test", codes);
+        return sources;
+    }
+
+    private static ClassLoader loadClasses(Map<String, byte[]> compiledClasses, List<String> testClasses,
+                                           boolean countTicks) {
+        Map<String, byte[]> testClassBytes = new LinkedHashMap<>();
+        Set<String> programClasses = new HashSet<>();
+        for (Map.Entry<String, byte[]> compiledClass : compiledClasses.entrySet()) {
+            if (compiledClass.getKey().endsWith("Test")) {
+                testClassBytes.put(compiledClass.getKey(), compiledClass.getValue());
+            } else {
+                programClasses.add(compiledClass.getKey());
+            }
+        }
+        // The test classes independent of the program are loaded once for all the programs
+        Set<String> sharedTestClasses = SharedClassLoader.getInstance().share(testClassBytes, programClasses);
+        InstrumentingClassLoader loader = new InstrumentingClassLoader(SharedClassLoader.getInstance());
+
+        for (Map.Entry<String, byte[]> compiledClass : compiledClasses.entrySet()) {
+            String className = compiledClass.getKey();
+            byte[] classBytes = compiledClass.getValue();
+            if (className.endsWith("Test")) {
+                testClasses.add(className);
+                if (!sharedTestClasses.contains(className)) {
+                    loader.addClass(className, classBytes);
+                }
+            } else {
+                // If the class is not a test, then instrument the class
+                byte[] instrumented = CoverageInstrumenter.instrument(classBytes, countTicks);
+                loader.addClass(className, instrumented);
             }
-            FolderCleaner.cleanTmpDir(targetProgram.getClassName());
-        }
-    }
-
-    private ClassLoader loadClasses(Path classDir) throws Exception {
-        InstrumentingClassLoader loader = new InstrumentingClassLoader();
-        testClasses.clear();
-
-        try (Stream<Path> paths = Files.walk(classDir)) {
-            paths.filter(Files::isRegularFile)
-                    .filter(p -> p.toString().endsWith(".class"))
-                    .forEach(p -> {
-                        try {
-                            String className = classDir.relativize(p)
-                                    .toString()
-                                    .replace(FileSystems.getDefault().getSeparator(), ".")
-                                    .replaceAll("\\.class$", "");
-
-                            byte[] classBytes = Files.readAllBytes(p);
-                            if (className.endsWith("Test")) {
-                                testClasses.add(className);
-                                loader.addClass(className, classBytes);
-                            } else {
-                                // If the class is not a test, then instrument the class
-                                byte[] instrumented = CoverageInstrumenter.instrument(classBytes);
-                                loader.addClass(className, instrumented);
-                            }
-                        } catch (IOException e) {
-                            throw new RuntimeException("Failed to load class from " + p, e);
-                        }
-                    });
         }
 
         return loader;
     }
 
-    private void recordSuccessResult(Program targetProgram, String testName) {
-        List<Integer> hitLines = CoverageTracker.getExecutedLines();
+    private void recordSuccessResult(Program targetProgram, TestResult testResult) {
+        Set<Integer> hitLines = new HashSet<>(testResult.getExecutedLines());
 
         for (int i = 0; i < targetProgram.getCodes().size(); i++) {
             if (hitLines.contains(i)) {
@@ -236,11 +866,11 @@ public class TestSuite {
             }
         }
 
-        targetProgram.getPositiveTests().add(testName);
+        targetProgram.getPositiveTests().add(testResult.getTestName());
     }
 
-    private void recordFailedResult(Program targetProgram, String testName) {
-        List<Integer> hitLines = CoverageTracker.getExecutedLines();
+    private void recordFailedResult(Program targetProgram, TestResult testResult) {
+        Set<Integer> hitLines = new HashSet<>(testResult.getExecutedLines());
 
         for (int i = 0; i < targetProgram.getCodes().size(); i++) {
             if (hitLines.contains(i)) {
@@ -252,7 +882,348 @@ public class TestSuite {
             }
         }
 
-        targetProgram.getNegativeTests().add(testName);
+        targetProgram.getNegativeTests().add(testResult.getTestName());
+    }
+
+    /**
+     * Enables the on-disk tier of the evaluation cache. <br>
+     *
+     * The entries are stored in a sub-directory of {@code cacheDir} named after the
+     * hash of the test suite, so different targets never share entries.
+     *
+     * @param cacheDir the directory to store the cache entries in
+     */
+    public void setCacheDirectory(String cacheDir) {
+        Path dir = Paths.get(cacheDir, SourceFingerprint.hash(SourceFingerprint.normalize(codes)));
+        this.cache = new EvaluationCache(EvaluationCache.DEFAULT_MAX_SIZE_IN_BYTES, dir);
+    }
+
+    /**
+     * Enables the concurrent execution of the tests of a program. <br>
+     *
+     * Only the test classes executed by the {@link ReflectiveTestRunner} run concurrently,
+     * and only if the program and the tests do not share static state (see
+     * {@link SharedStateDetector}), otherwise the tests run one after the other.
+     *
+     * @param testWorkers the number of threads running the tests, 1 or less to run the
+     *                    tests one after the other
+     */
+    public void setTestWorkers(int testWorkers) {
+        if (testExecutor != null) {
+            testExecutor.shutdown();
+            testExecutor = null;
+        }
+        testExecutor = newTestExecutor(testWorkers);
+    }
+
+    /**
+     * Runs the tests of the programs in a pool of worker JVMs instead of the current JVM. <br>
+     *
+     * A program that exits, leaks threads or corrupts static state then only affects the
+     * worker JVM running its tests, see {@link TestWorkerPool}.
+     *
+     * @param workerPool the {@link TestWorkerPool} running the tests, or {@code null} to
+     *                   run them in the current JVM
+     */
+    public void setWorkerPool(TestWorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+
+    /**
+     * Configures the budget of every test, so a program looping forever can not stall the search. <br>
+     *
+     * The program classes count their method calls and loop iterations (their ticks), and a
+     * test exceeding its tick budget or its wall-clock timeout is stopped and considered failed.
+     * The tick budget is derived from the first program whose tests run, the original program:
+     * {@code tickBudgetFactor} times the ticks of its slowest test, and at least
+     * {@link #MIN_TICK_BUDGET}. <br>
+     *
+     * The tracker only checks the timeout while ticking, so with a timeout every test also runs
+     * under a real deadline, on a thread of its own: a test still running after its timeout is abandoned (see {@link TestDeadline}),
+     * and a worker JVM (see {@link #setWorkerPool(TestWorkerPool)}) is killed. The outcome of a
+     * program with a test exceeding its timeout depends on the load of the machine, so it is not
+     * stored to the caches.
+     *
+     * @param tickBudgetFactor the tick budget as a multiple of the ticks of the original program,
+     *                         0 or less to not count ticks at all
+     * @param testTimeoutMillis the wall-clock timeout of a test in milliseconds, 0 or less for no timeout
+     */
+    public void setTestBudget(double tickBudgetFactor, long testTimeoutMillis) {
+        this.tickBudgetFactor = tickBudgetFactor;
+        this.testTimeoutMillis = testTimeoutMillis;
+    }
+
+    /**
+     * Configures the allocation budget of every test, so a program allocating without bound
+     * can not drive the JVM into long garbage collections or an {@link OutOfMemoryError}. <br>
+     *
+     * A test allocating more bytes than its budget is stopped and considered failed, like a
+     * test exceeding its tick budget, see {@link #setTestBudget(double, long)}. The budget is
+     * derived from the original program: {@code allocationBudgetFactor} times the bytes
+     * allocated by its most allocating test, and at least {@link #MIN_ALLOCATION_BUDGET}. <br>
+     *
+     * The allocated bytes are only checked while ticking, so the allocation budget needs
+     * the ticks to be counted. Only the bytes allocated by the thread running the test are
+     * counted: a thread started by the program escapes the budget.
+     *
+     * @param allocationBudgetFactor the allocation budget as a multiple of the bytes allocated
+     *                               by the original program, 0 or less for no limit
+     */
+    public void setAllocationBudget(double allocationBudgetFactor) {
+        this.allocationBudgetFactor = allocationBudgetFactor;
+    }
+
+    /**
+     * Runs the priority tests of the programs first (e.g., the tests failing on the original
+     * program), then the other tests in batches of one test per thread (see
+     * {@link #setTestWorkers(int)}, one after the other if the tests share static state), and
+     * stops as soon as the remaining tests can no longer make the program useful to the search. <br>
+     *
+     * A program that stopped early gets the outcome of the executed tests only, and the number
+     * of tests it skipped, see {@link Program#getSkippedTestCount()}. Its outcome depends on
+     * the budget and the order of the tests, so it is not stored to the caches. The tests run
+     * after the priority tests in the order of their names, or in the order of the
+     * {@link TestScheduler}, see {@link #setTestScheduling(boolean, boolean)}. Early
+     * termination only applies to the tests run in the current JVM by the {@link ReflectiveTestRunner}.
+     *
+     * @param earlyTermination the {@link EarlyTermination} of the tests, or {@code null} to always run all the tests
+     */
+    public void setEarlyTermination(EarlyTermination earlyTermination) {
+        this.earlyTermination = earlyTermination;
+    }
+
+    /**
+     * Runs only the tests of a program that execute the method its closest compiled ancestor
+     * changed, see {@link RegressionTestSelector}, the other tests inheriting their outcome
+     * and coverage from the ancestor. <br>
+     *
+     * The selection assumes the programs are deterministic, and only applies to the tests run
+     * in the current JVM that do not share static state. The verification mode still runs
+     * every test, and reports the programs on which the selection would have been wrong.
+     *
+     * @param enabled {@code true} to select the tests to run
+     * @param verify {@code true} to check the selection against the outcome of all the tests
+     */
+    public void setRegressionTestSelection(boolean enabled, boolean verify) {
+        this.regressionTestSelection = enabled;
+        this.verifyTestSelection = verify;
+    }
+
+    /**
+     * Gets how many programs only ran a selection of their tests so far, see
+     * {@link #setRegressionTestSelection(boolean, boolean)}.
+     *
+     * @return the number of programs with selected tests, of programs running no test at all,
+     *         of tests run again and inherited, and the outcome of the verification
+     */
+    public String getTestSelectionSummary() {
+        return "enabled=" + regressionTestSelection + ", selected_programs=" + selectedProgramCount.get()
+                + ", unexecuted_programs=" + unexecutedProgramCount.get() + ", rerun_tests=" + rerunTestCount.get()
+                + ", inherited_tests=" + inheritedTestCount.get() + ", verified_programs=" + verifiedProgramCount.get()
+                + ", mismatches=" + mismatchedProgramCount.get();
+    }
+
+    /**
+     * Orders the tests run after the priority tests with early termination (see
+     * {@link #setEarlyTermination(EarlyTermination)}) by their chance to fail per tick,
+     * learned from the outcome of the tests across the search, see {@link TestScheduler}. The
+     * order only changes when a generation starts, see {@link #startGeneration()}, and every
+     * search starts from the same statistics, see {@link #startSearch()}. <br>
+     *
+     * If persistent, the statistics are loaded from a file next to the test suite (the test
+     * file with a {@code .stats} extension), and stored to it with {@link #saveTestStatistics()}.
+     * The search then depends on the previous repairs, and is no longer reproducible from its seed.
+     *
+     * @param enabled {@code true} to order the tests by their history
+     * @param persistent {@code true} to load and store the statistics from and to a file
+     */
+    public void setTestScheduling(boolean enabled, boolean persistent) {
+        if (!enabled) {
+            testScheduler = null;
+        } else if (persistent) {
+            testScheduler = TestScheduler.load(Paths.get(path.replaceFirst("\\.java$", "") + ".stats"));
+        } else {
+            testScheduler = TestScheduler.empty();
+        }
+    }
+
+    /**
+     * Notifies the test suite that a search starts: the test scheduling forgets what it
+     * learned during the previous searches, see {@link TestScheduler#reset()}.
+     */
+    public void startSearch() {
+        TestScheduler scheduler = testScheduler;
+        if (scheduler != null) {
+            scheduler.reset();
+        }
+    }
+
+    /**
+     * Notifies the test suite that a generation starts: the test scheduling orders the tests
+     * from what it learned until then, see {@link TestScheduler#freeze()}.
+     */
+    public void startGeneration() {
+        TestScheduler scheduler = testScheduler;
+        if (scheduler != null) {
+            scheduler.freeze();
+        }
+    }
+
+    /**
+     * Stores the statistics of the tests learned so far next to the test suite, see
+     * {@link #setTestScheduling(boolean, boolean)}. Does nothing if the test scheduling is disabled
+     * or not persistent.
+     *
+     * @throws IOException if the statistics can not be written
+     */
+    public void saveTestStatistics() throws IOException {
+        TestScheduler scheduler = testScheduler;
+        if (scheduler != null) {
+            scheduler.save();
+        }
+    }
+
+    /**
+     * Getter for the scheduler of the tests.
+     * @return the {@link TestScheduler} of the test suite, or {@code null} if the test scheduling is disabled
+     */
+    public TestScheduler getTestScheduler() {
+        return testScheduler;
+    }
+
+    /**
+     * Keeps the sessions of the JUnit launcher executing the tests not supported by the
+     * {@link ReflectiveTestRunner} across the programs, one per thread, see {@link LauncherSessionPool}.
+     * Enabled by default.
+     *
+     * @param reuse {@code true} to reuse the sessions, {@code false} to open a new session for every program
+     */
+    public void setLauncherReuse(boolean reuse) {
+        LauncherSessionPool previous = launcherSessions;
+        launcherSessions = new LauncherSessionPool(reuse);
+        previous.close();
+    }
+
+    /**
+     * Getter for the sessions of the JUnit launcher.
+     * @return the {@link LauncherSessionPool} of the test suite
+     */
+    public LauncherSessionPool getLauncherSessions() {
+        return launcherSessions;
+    }
+
+    /**
+     * Gets how many programs stopped early so far, see {@link #setEarlyTermination(EarlyTermination)}.
+     *
+     * @return the number of programs that stopped early and the number of tests they skipped
+     */
+    public String getEarlyTerminationSummary() {
+        return "enabled=" + (earlyTermination != null) + ", stopped_programs=" + earlyStoppedProgramCount.get()
+                + ", skipped_tests=" + skippedTestCount.get();
+    }
+
+    /**
+     * Gets the budget of the tests, and how many tests exceeded it so far.
+     *
+     * @return the tick budget, the timeout and the allocation budget of a test, with the number of
+     *         timed-out tests (and of those exceeding the allocation budget) and of programs with
+     *         at least one timed-out test, and the number of tests abandoned at their deadline
+     */
+    public String getTimeoutSummary() {
+        return "tick_budget=" + (tickBudget > 0 ? tickBudget : "none") + ", test_timeout="
+                + (testTimeoutMillis > 0 ? testTimeoutMillis + "ms" : "none")
+                + ", allocation_budget=" + (allocationBudget > 0 ? allocationBudget / 1024 + "KB" : "none")
+                + ", timed_out_tests=" + timedOutTestCount.get() + ", over_allocated_tests=" + overAllocatedTestCount.get()
+                + ", timed_out_programs=" + timedOutProgramCount.get()
+                + ", abandoned_tests=" + TestDeadline.getAbandonedCount();
+    }
+
+    private synchronized void recordBaseline(List<TestResult> testResults) {
+        if (baselineTestCount < 0) {
+            baselineTestCount = testResults.size();
+        }
+        if (tickBudget > 0 || tickBudgetFactor <= 0) {
+            return;
+        }
+        long maxTicks = 0;
+        long maxAllocatedBytes = 0;
+        for (TestResult testResult : testResults) {
+            maxTicks = Math.max(maxTicks, testResult.getTicks());
+            maxAllocatedBytes = Math.max(maxAllocatedBytes, testResult.getAllocatedBytes());
+        }
+        tickBudget = Math.max(MIN_TICK_BUDGET, (long) (maxTicks * tickBudgetFactor));
+        if (allocationBudgetFactor > 0) {
+            allocationBudget = Math.max(MIN_ALLOCATION_BUDGET, (long) (maxAllocatedBytes * allocationBudgetFactor));
+        }
+    }
+
+    private void recordSkippedTests(List<TestResult> testResults) {
+        int skipped = baselineTestCount - testResults.size();
+        if (baselineTestCount < 0 || skipped <= 0) {
+            return;
+        }
+        earlyStoppedProgramCount.incrementAndGet();
+        skippedTestCount.addAndGet(skipped);
+    }
+
+    /**
+     * Checks whether the outcome of the tests of a program can be stored to the caches. A test
+     * exceeding its wall-clock timeout may pass on a less loaded machine, unlike a test
+     * exceeding its tick or allocation budget, and a program that stopped early (see
+     * {@link #setEarlyTermination(EarlyTermination)}) lacks the outcome of the skipped tests.
+     */
+    private boolean isCacheable(List<TestResult> testResults) {
+        int baseline = baselineTestCount;
+        return (baseline < 0 || testResults.size() >= baseline)
+                && testResults.stream().noneMatch(TestResult::isClockTimedOut);
+    }
+
+    private boolean isOverAllocated(TestResult testResult) {
+        long budget = allocationBudget;
+        return testResult.isTimedOut() && budget > 0 && testResult.getAllocatedBytes() > budget;
+    }
+
+    private void recordTimeouts(List<TestResult> testResults) {
+        long timedOut = testResults.stream().filter(TestResult::isTimedOut).count();
+        if (timedOut > 0) {
+            timedOutTestCount.addAndGet(timedOut);
+            timedOutProgramCount.incrementAndGet();
+            overAllocatedTestCount.addAndGet(testResults.stream().filter(this::isOverAllocated).count());
+        }
+    }
+
+    /**
+     * Creates the threads running the tests of a program concurrently.
+     *
+     * @param testWorkers the number of threads
+     * @return the {@link ExecutorService} running the tests, or {@code null} if
+     *         {@code testWorkers} is 1 or less
+     */
+    static ExecutorService newTestExecutor(int testWorkers) {
+        if (testWorkers <= 1) {
+            return null;
+        }
+        return Executors.newFixedThreadPool(testWorkers, task -> {
+            Thread thread = new Thread(task, "test-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Getter for the cache of test outcomes of the test suite keyed by the compiled classes.
+     * @return the {@link BytecodeCache} of the test suite
+     */
+    public BytecodeCache getBytecodeCache() {
+        return bytecodeCache;
+    }
+
+    /**
+     * Getter for the cache of compilation and test outcomes of the test suite.
+     * @return the {@link EvaluationCache} of the test suite
+     */
+    public EvaluationCache getCache() {
+        return cache;
     }
 
     /**
@@ -269,4 +1240,11 @@ public class TestSuite {
         Path javaFile = dir.resolve(className + "Test.java");
         Files.write(javaFile, codes);
     }
-}
\ No newline at end of file
+
+    /**
+     * The test classes compiled once, with the API of the program classes they refer to.
+     */
+    private record CompiledTestClasses(Map<String, byte[]> classes, Set<String> testedClasses,
+                                       Map<String, String> testedApi) {
+    }
+}
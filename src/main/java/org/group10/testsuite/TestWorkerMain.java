@@ -0,0 +1,152 @@
+package org.group10.testsuite;
+
+import org.group10.utils.instrument.CoverageTracker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Entry point of a worker JVM of the {@link TestWorkerPool}. <br>
+ *
+ * The worker reads the compiled classes of a program from its standard input, runs the
+ * tests in the same way as {@link TestSuite} does in the search JVM, and writes their
+ * outcome to its standard output, then waits for the next program. It stops when its
+ * standard input is closed. <br>
+ *
+ * The protocol is binary ({@link DataInputStream}/{@link DataOutputStream}):
+ * <ul>
+ *     <li>request: whether to count ticks, the tick budget, the timeout and the allocation budget of
+ *     every test (see {@link CoverageTracker.Budget}), the number of classes, then the name, the length
+ *     and the bytecode of every class</li>
+ *     <li>response: {@code true} and the number of tests, then the name, the outcome, the number of
+ *     executed lines, the executed lines, the number of ticks, the allocated bytes and whether it
+ *     timed out of every test; or {@code false} and an error message</li>
+ * </ul>
+ * The output of the tests goes to the standard error, and the tests get an empty standard
+ * input, so they can never interfere with the protocol.
+ */
+public class TestWorkerMain {
+    /**
+     * Runs the worker.
+     *
+     * @param args the number of threads running the tests of a program concurrently (optional)
+     * @throws IOException if the standard output of the worker is closed
+     */
+    public static void main(String[] args) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        System.setIn(new ByteArrayInputStream(new byte[0]));
+        System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.err), true));
+
+        ExecutorService testExecutor = TestSuite.newTestExecutor(args.length > 0 ? Integer.parseInt(args[0]) : 1);
+        LauncherSessionPool launcherSessions = new LauncherSessionPool(true);
+        while (true) {
+            boolean countTicks;
+            CoverageTracker.Budget budget;
+            Map<String, byte[]> classes;
+            try {
+                countTicks = in.readBoolean();
+                budget = new CoverageTracker.Budget(in.readLong(), in.readLong(), in.readLong());
+                classes = readClasses(in);
+            } catch (EOFException e) {
+                // A thread left running by a program (or its shutdown hook) must not keep the worker alive
+                Runtime.getRuntime().halt(0);
+                return;
+            }
+
+            try {
+                List<TestResult> results = TestSuite.runTests(classes, testExecutor, launcherSessions, countTicks, budget,
+                        null, null, null);
+                writeResults(out, results);
+            } catch (Exception e) {
+                out.writeBoolean(false);
+                out.writeUTF(String.valueOf(e));
+            }
+            out.flush();
+        }
+    }
+
+    static void writeRequest(DataOutputStream out, Map<String, byte[]> classes, boolean countTicks,
+                             CoverageTracker.Budget budget) throws IOException {
+        out.writeBoolean(countTicks);
+        out.writeLong(budget.ticks());
+        out.writeLong(budget.timeoutMillis());
+        out.writeLong(budget.allocatedBytes());
+        out.writeInt(classes.size());
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().length);
+            out.write(entry.getValue());
+        }
+    }
+
+    static Map<String, byte[]> readClasses(DataInputStream in) throws IOException {
+        int classCount = in.readInt();
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (int i = 0; i < classCount; i++) {
+            String className = in.readUTF();
+            byte[] bytecode = new byte[in.readInt()];
+            in.readFully(bytecode);
+            classes.put(className, bytecode);
+        }
+        return classes;
+    }
+
+    static void writeResults(DataOutputStream out, List<TestResult> results) throws IOException {
+        out.writeBoolean(true);
+        out.writeInt(results.size());
+        for (TestResult result : results) {
+            out.writeUTF(result.getTestName());
+            out.writeBoolean(result.isSucceeded());
+            out.writeInt(result.getExecutedLines().size());
+            for (int line : result.getExecutedLines()) {
+                out.writeInt(line);
+            }
+            out.writeLong(result.getTicks());
+            out.writeLong(result.getAllocatedBytes());
+            out.writeBoolean(result.isTimedOut());
+            out.writeBoolean(result.isClockTimedOut());
+        }
+    }
+
+    /**
+     * Reads the response of a worker.
+     *
+     * @param in the standard output of the worker
+     * @return the outcome of every executed test
+     * @throws IOException if the worker stopped before responding
+     * @throws IllegalStateException if the worker failed to run the tests
+     */
+    static List<TestResult> readResults(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            throw new IllegalStateException("Test worker failed to run the tests: " + in.readUTF());
+        }
+        int resultCount = in.readInt();
+        List<TestResult> results = new ArrayList<>(resultCount);
+        for (int i = 0; i < resultCount; i++) {
+            String testName = in.readUTF();
+            boolean succeeded = in.readBoolean();
+            int lineCount = in.readInt();
+            List<Integer> executedLines = new ArrayList<>(lineCount);
+            for (int j = 0; j < lineCount; j++) {
+                executedLines.add(in.readInt());
+            }
+            results.add(new TestResult(testName, succeeded, executedLines, in.readLong(), in.readLong(),
+                    in.readBoolean(), in.readBoolean()));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,352 @@
+package org.group10.testsuite;
+
+import org.group10.utils.instrument.CoverageTracker;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pool of long-lived worker JVMs running the tests of the programs, see {@link TestWorkerMain}. <br>
+ *
+ * Running the tests of a mutant in the search JVM is risky: a mutant calling
+ * {@code System.exit}, leaking threads or corrupting static state can kill or skew the
+ * whole search. A worker JVM isolates the search from the mutants, and as every worker
+ * runs the tests of many programs, the start of the JVM, the class loading and the JIT
+ * warm-up are paid once for many programs. <br>
+ *
+ * The workers are started on demand, and recycled (stopped, and replaced by a new one
+ * when needed) after a given number of programs, so the state leaked by the mutants
+ * does not pile up. A worker that crashes while running the tests of a program is
+ * recycled as well, and all the tests of the program are considered failed. <br>
+ *
+ * As a last resort against the tests that never end without ticking (e.g., blocked or
+ * stuck in library code), a worker still running the tests of a program after the
+ * timeout of every test (plus the time to start a JVM) is killed, and all the tests of
+ * the program are considered timed out.
+ */
+public class TestWorkerPool implements AutoCloseable {
+    /**
+     * Default number of programs a worker runs the tests of before being recycled.
+     */
+    public static final int DEFAULT_MAX_USES = 500;
+
+    private static final String TEST_DESCRIPTOR = Type.getDescriptor(Test.class);
+
+    /**
+     * Time given to a worker to start and load the classes, on top of the timeout of the tests.
+     */
+    private static final long START_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * Time given to a worker to exit once its standard input is closed, before it is killed.
+     */
+    private static final long STOP_TIMEOUT_MILLIS = 1_000;
+
+    private final int workers;
+    private final int maxUses;
+    private final int testWorkers;
+    private final Semaphore permits;
+    private final Deque<TestWorker> idleWorkers = new ArrayDeque<>();
+    private boolean closed = false;
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "test-worker-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long startedCount = 0;
+    private long recycledCount = 0;
+    private long crashedCount = 0;
+    private long killedCount = 0;
+    private long evaluationCount = 0;
+
+    /**
+     * Constructs a {@link TestWorkerPool}. No worker is started until some tests have to run.
+     *
+     * @param workers the maximum number of worker JVMs running at the same time
+     * @param maxUses the number of programs a worker runs the tests of before being recycled,
+     *                {@link #DEFAULT_MAX_USES} if non-positive
+     * @param testWorkers the number of threads of every worker running the tests of a program
+     *                    concurrently, see {@link TestSuite#setTestWorkers(int)}
+     */
+    public TestWorkerPool(int workers, int maxUses, int testWorkers) {
+        this.workers = Math.max(workers, 1);
+        this.maxUses = maxUses > 0 ? maxUses : DEFAULT_MAX_USES;
+        this.testWorkers = testWorkers;
+        this.permits = new Semaphore(this.workers);
+    }
+
+    /**
+     * Runs every test of the given compiled classes in a worker JVM. <br>
+     *
+     * If the worker crashes (e.g., the program exits), it is recycled and every test
+     * is considered failed, without any executed line.
+     *
+     * @param classes the compiled classes of the program and of the test suite
+     * @param countTicks {@code true} to count the ticks of the tests, see {@link CoverageTracker#tick()}
+     * @param budget the {@link CoverageTracker.Budget} of every test
+     * @return the outcome of every executed test
+     * @throws IOException if no worker JVM can be started
+     * @throws InterruptedException if interrupted while waiting for a worker
+     */
+    public List<TestResult> runTests(Map<String, byte[]> classes, boolean countTicks, CoverageTracker.Budget budget)
+            throws IOException, InterruptedException {
+        List<String> testNames = getTestNames(classes);
+        permits.acquire();
+        try {
+            TestWorker worker = acquireWorker();
+            ScheduledFuture<?> kill = null;
+            if (budget.timeoutMillis() > 0) {
+                long timeout = budget.timeoutMillis() * Math.max(testNames.size(), 1) + START_TIMEOUT_MILLIS;
+                kill = watchdog.schedule(worker::killOnTimeout, timeout, TimeUnit.MILLISECONDS);
+            }
+
+            List<TestResult> results;
+            try {
+                results = worker.runTests(classes, countTicks, budget);
+            } catch (IOException e) {
+                worker.kill();
+                boolean killed = recordCrash(worker);
+                List<TestResult> failedResults = new ArrayList<>();
+                for (String testName : testNames) {
+                    failedResults.add(killed ? TestResult.clockTimedOut(testName)
+                            : new TestResult(testName, false, new ArrayList<>()));
+                }
+                return failedResults;
+            } catch (IllegalStateException e) {
+                // The worker itself is fine
+                worker.finishRun();
+                releaseWorker(worker);
+                throw e;
+            } finally {
+                if (kill != null) {
+                    kill.cancel(false);
+                }
+            }
+            // A watchdog firing from now on no longer kills the worker, which answered in time
+            worker.finishRun();
+            releaseWorker(worker);
+            return results;
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Getter for the maximum number of worker JVMs running at the same time.
+     * @return the number of workers
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Gets the number of worker JVMs started so far.
+     * @return the number of started workers
+     */
+    public synchronized long getStartedCount() {
+        return startedCount;
+    }
+
+    /**
+     * Gets the number of worker JVMs that crashed so far.
+     * @return the number of crashed workers
+     */
+    public synchronized long getCrashedCount() {
+        return crashedCount;
+    }
+
+    /**
+     * Stops the idle workers, killing the ones that do not exit in time. The workers still
+     * running tests are stopped once they are done.
+     */
+    @Override
+    public void close() {
+        List<TestWorker> stoppedWorkers;
+        synchronized (this) {
+            closed = true;
+            stoppedWorkers = new ArrayList<>(idleWorkers);
+            idleWorkers.clear();
+        }
+        for (TestWorker worker : stoppedWorkers) {
+            worker.stop();
+        }
+        watchdog.shutdown();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TestWorkerPool workers=" + workers + ", max_uses=" + maxUses + ", evaluations=" + evaluationCount
+                + ", started=" + startedCount + ", recycled=" + recycledCount + ", crashed=" + crashedCount
+                + ", killed_on_timeout=" + killedCount;
+    }
+
+    private TestWorker acquireWorker() throws IOException {
+        synchronized (this) {
+            TestWorker worker;
+            while ((worker = idleWorkers.poll()) != null) {
+                if (worker.isUsable()) {
+                    return worker;
+                }
+                // Died while idle
+                worker.kill();
+            }
+            startedCount++;
+        }
+        // Starting a JVM is slow, so it happens outside the lock
+        return new TestWorker(testWorkers);
+    }
+
+    private void releaseWorker(TestWorker worker) {
+        synchronized (this) {
+            evaluationCount++;
+            if (!worker.isUsable()) {
+                // Killed by the watchdog right after answering, or died: the next program would only crash on it
+                worker.kill();
+                return;
+            }
+            if (worker.uses < maxUses && !closed) {
+                idleWorkers.push(worker);
+                return;
+            }
+            if (!closed) {
+                recycledCount++;
+            }
+        }
+        // Waiting for the worker to exit happens outside the lock
+        worker.stop();
+    }
+
+    /**
+     * Records that a worker stopped before responding.
+     * @return {@code true} if the worker was killed by the watchdog, {@code false} if it crashed
+     */
+    private synchronized boolean recordCrash(TestWorker worker) {
+        evaluationCount++;
+        if (worker.killed) {
+            killedCount++;
+        } else {
+            crashedCount++;
+        }
+        return worker.killed;
+    }
+
+    /**
+     * Gets the names of the tests of a program: every test method of the test classes (the
+     * classes named {@code *Test}), without running or even loading them.
+     */
+    private static List<String> getTestNames(Map<String, byte[]> classes) {
+        List<String> testNames = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            if (!entry.getKey().endsWith("Test")) {
+                continue;
+            }
+            String simpleName = entry.getKey().substring(entry.getKey().lastIndexOf('.') + 1);
+            new ClassReader(entry.getValue()).accept(new ClassVisitor(Opcodes.ASM9) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor,
+                                                 String signature, String[] exceptions) {
+                    return new MethodVisitor(Opcodes.ASM9) {
+                        @Override
+                        public AnnotationVisitor visitAnnotation(String annotationDescriptor, boolean visible) {
+                            if (TEST_DESCRIPTOR.equals(annotationDescriptor)) {
+                                testNames.add(simpleName + "@" + name);
+                            }
+                            return null;
+                        }
+                    };
+                }
+            }, ClassReader.SKIP_CODE);
+        }
+        return testNames;
+    }
+
+    /**
+     * A worker JVM, with the streams of the protocol of {@link TestWorkerMain}.
+     */
+    private static class TestWorker {
+        private final Process process;
+        private final DataOutputStream out;
+        private final DataInputStream in;
+        private int uses = 0;
+        private volatile boolean killed = false;
+        // Whether the worker is running the tests of a program, the watchdog only kills a running worker
+        private final AtomicBoolean running = new AtomicBoolean(false);
+
+        TestWorker(int testWorkers) throws IOException {
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    TestWorkerMain.class.getName(), String.valueOf(testWorkers))
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+
+        List<TestResult> runTests(Map<String, byte[]> classes, boolean countTicks, CoverageTracker.Budget budget)
+                throws IOException {
+            uses++;
+            running.set(true);
+            TestWorkerMain.writeRequest(out, classes, countTicks, budget);
+            out.flush();
+            return TestWorkerMain.readResults(in);
+        }
+
+        void kill() {
+            process.destroyForcibly();
+        }
+
+        void finishRun() {
+            running.set(false);
+        }
+
+        void killOnTimeout() {
+            // A no-op once the results were read
+            if (running.compareAndSet(true, false)) {
+                killed = true;
+                kill();
+            }
+        }
+
+        boolean isUsable() {
+            return !killed && process.isAlive();
+        }
+
+        void stop() {
+            try {
+                // The worker exits once its standard input is closed, or is killed
+                out.close();
+                if (!process.waitFor(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (IOException e) {
+                process.destroyForcibly();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.group10.utils.cache;
+
+import org.group10.testsuite.TestResult;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+
+/**
+ * A bounded cache of test outcomes keyed by the compiled classes of a program. <br>
+ *
+ * Many sources that are textually different compile to the same bytecode (e.g., a
+ * statement swapped and swapped back, a reformatted expression), so their tests have
+ * the same outcome. The {@link EvaluationCache} only recognizes sources that only
+ * differ in blank lines, this cache recognizes the sources compiling to the same
+ * classes, line numbers included, so the coverage of the tests is the same as well. <br>
+ *
+ * The cache is single-flight: the first request for some classes runs the tests, and
+ * the concurrent requests for the same classes wait for its outcome instead of running
+ * the tests again. The least recently used outcomes are evicted once the cache holds
+ * more than the configured number of entries. The tests still running are never evicted,
+ * so the cache only exceeds its bound while more tests than that are running at once.
+ */
+public class BytecodeCache {
+    /**
+     * Default maximum number of entries of the cache.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, CompletableFuture<List<TestResult>>> entries;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long sharedCount = 0;
+
+    /**
+     * Constructs a {@link BytecodeCache}.
+     *
+     * @param maxEntries the maximum number of entries kept, {@link #DEFAULT_MAX_ENTRIES} if non-positive
+     */
+    public BytecodeCache(int maxEntries) {
+        this.maxEntries = maxEntries > 0 ? maxEntries : DEFAULT_MAX_ENTRIES;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<List<TestResult>>> eldest) {
+                if (size() <= BytecodeCache.this.maxEntries) {
+                    return false;
+                }
+                // The tests still running keep their entry, so the waiting requests are not
+                // duplicated: the least recently used entry whose tests are done is evicted
+                Iterator<CompletableFuture<List<TestResult>>> iterator = values().iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().isDone()) {
+                        iterator.remove();
+                        break;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Computes the key of the compiled classes of a program, line numbers included.
+     *
+     * @param classes the compiled classes of the program and of the test suite
+     * @return the SHA-256 hash of the names and the bytecode of the classes
+     */
+    public static String key(Map<String, byte[]> classes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<String, byte[]> compiledClass : new TreeMap<>(classes).entrySet()) {
+                digest.update(compiledClass.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(compiledClass.getValue());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+
+    /**
+     * Gets the test outcomes of some compiled classes, running the tests only if no other
+     * request for the same classes did or is doing it. <br>
+     *
+     * If the tests fail to run, the waiting requests get the same exception, and the next
+     * request for the classes runs the tests again.
+     *
+     * @param key the key of the compiled classes, see {@link #key(Map)}
+     * @param testRun runs the tests of the compiled classes
+     * @return the outcome of every executed test
+     * @throws Exception if the tests fail to run
+     */
+    public List<TestResult> getTestResults(String key, Callable<List<TestResult>> testRun) throws Exception {
+        return getTestResults(key, testRun, testResults -> true);
+    }
+
+    /**
+     * Gets the test outcomes of some compiled classes, see {@link #getTestResults(String, Callable)},
+     * keeping the outcome of the tests only if it can be reused. <br>
+     *
+     * The requests waiting for the tests get their outcome anyway, but an outcome that can not
+     * be reused (e.g., depending on the load of the machine) is not kept for the next requests.
+     *
+     * @param key the key of the compiled classes, see {@link #key(Map)}
+     * @param testRun runs the tests of the compiled classes
+     * @param cacheable checks whether the outcome of the tests can be kept
+     * @return the outcome of every executed test
+     * @throws Exception if the tests fail to run
+     */
+    public List<TestResult> getTestResults(String key, Callable<List<TestResult>> testRun,
+                                           Predicate<List<TestResult>> cacheable) throws Exception {
+        CompletableFuture<List<TestResult>> future;
+        boolean owner = false;
+        synchronized (this) {
+            future = entries.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                entries.put(key, future);
+                owner = true;
+                missCount++;
+            } else if (future.isDone()) {
+                hitCount++;
+            } else {
+                sharedCount++;
+            }
+        }
+
+        if (owner) {
+            try {
+                List<TestResult> testResults = List.copyOf(testRun.call());
+                if (!cacheable.test(testResults)) {
+                    forget(key, future);
+                }
+                future.complete(testResults);
+            } catch (Exception | Error e) {
+                forget(key, future);
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Looks up the test outcomes of some compiled classes, without running the tests.
+     *
+     * @param key the key of the compiled classes, see {@link #key(Map)}
+     * @return the outcome of every executed test, or {@code null} if the tests of the classes
+     *         never ran or are still running
+     */
+    public synchronized List<TestResult> peekTestResults(String key) {
+        CompletableFuture<List<TestResult>> future = entries.get(key);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        hitCount++;
+        return future.join();
+    }
+
+    /**
+     * Gets how many requests waited for the tests run by a concurrent request for the same classes.
+     * @return the number of requests sharing a test run in flight
+     */
+    public synchronized long getSharedCount() {
+        return sharedCount;
+    }
+
+    private synchronized void forget(String key, CompletableFuture<List<TestResult>> future) {
+        entries.remove(key, future);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "BytecodeCache entries=" + entries.size() + ", hits=" + hitCount + ", misses=" + missCount
+                + ", shared_in_flight=" + sharedCount;
+    }
+}
@@ -0,0 +1,458 @@
+package org.group10.utils.cache;
+
+import org.group10.testsuite.TestResult;
+import org.group10.utils.compiler.CompilationResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A bounded, content-addressed cache of compilation and test outcomes. <br>
+ *
+ * The GenProg search regenerates the same source many times (undone mutations,
+ * identical crossover offspring, repeated benchmark runs), so the cache stores
+ * the compile verdict, the class bytes and the test outcomes of a source under
+ * its {@link SourceFingerprint}. Sources that only differ in blank lines share an
+ * entry, their line numbers get translated with {@link SourceLayout}. <br>
+ *
+ * The in-memory tier evicts the least recently used entries once the total size
+ * of the entries exceeds the configured limit. An optional on-disk tier keeps
+ * every entry under a cache directory, so repeated runs on the same target can
+ * reuse the work of the previous ones.
+ */
+public class EvaluationCache {
+    /**
+     * Default size limit of the in-memory tier (64 MB).
+     */
+    public static final long DEFAULT_MAX_SIZE_IN_BYTES = 64L * 1024 * 1024;
+
+    // Version 5: the entries of programs that stopped early or timed out on the clock are no longer stored
+    private static final int FILE_FORMAT_VERSION = 5;
+
+    private final long maxSizeInBytes;
+    private final Path cacheDir;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long diskHitCount = 0;
+
+    /**
+     * Constructs an in-memory only cache.
+     *
+     * @param maxSizeInBytes the maximum total size of the cached entries
+     */
+    public EvaluationCache(long maxSizeInBytes) {
+        this(maxSizeInBytes, null);
+    }
+
+    /**
+     * Constructs a cache with an on-disk tier.
+     *
+     * @param maxSizeInBytes the maximum total size of the entries kept in memory
+     * @param cacheDir the directory of the on-disk tier, or {@code null} to only keep entries in memory
+     */
+    public EvaluationCache(long maxSizeInBytes, Path cacheDir) {
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Looks up the compilation outcome of a source.
+     *
+     * @param className the name of the class
+     * @param codes the source code of the class
+     * @return the cached {@link CompilationResult} with its line numbers matching
+     *         the given source, or {@code null} if the source was never compiled
+     */
+    public synchronized CompilationResult getCompilationResult(String className, List<String> codes) {
+        Entry entry = lookup(SourceFingerprint.key(className, codes));
+        if (entry == null || entry.compilationResult == null) {
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        SourceLayout layout = new SourceLayout(codes);
+        CompilationResult result = entry.compilationResult;
+        if (entry.layout.equals(layout)) {
+            return result;
+        }
+
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> compiledClass : result.getClasses().entrySet()) {
+            classes.put(compiledClass.getKey(), entry.layout.translate(compiledClass.getValue(), layout));
+        }
+        return new CompilationResult(result.isSuccessful(), result.getDiagnostics(),
+                result.getSourcesWithErrors(), classes);
+    }
+
+    /**
+     * Stores the compilation outcome of a source.
+     *
+     * @param className the name of the class
+     * @param codes the source code of the class
+     * @param result the {@link CompilationResult} of the source
+     */
+    public synchronized void putCompilationResult(String className, List<String> codes, CompilationResult result) {
+        String key = SourceFingerprint.key(className, codes);
+        Entry entry = lookup(key);
+        SourceLayout layout = new SourceLayout(codes);
+        if (entry == null) {
+            entry = new Entry(layout);
+        }
+
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> compiledClass : result.getClasses().entrySet()) {
+            classes.put(compiledClass.getKey(), layout.translate(compiledClass.getValue(), entry.layout));
+        }
+        entry.compilationResult = new CompilationResult(result.isSuccessful(), result.getDiagnostics(),
+                result.getSourcesWithErrors(), classes);
+        store(key, entry);
+    }
+
+    /**
+     * Looks up the compile verdict of a source, as given by a full compilation
+     * or by an analysis-only check.
+     *
+     * @param className the name of the class
+     * @param codes the source code of the class
+     * @return {@code true} if the class compiles, {@code false} if it does not,
+     *         or {@code null} if the source was never checked
+     */
+    public synchronized Boolean getCompilable(String className, List<String> codes) {
+        Entry entry = lookup(SourceFingerprint.key(className, codes));
+        if (entry == null || (entry.compilationResult == null && entry.compilable == null)) {
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        if (entry.compilationResult != null) {
+            return entry.compilationResult.isCompilable(className);
+        }
+        return entry.compilable;
+    }
+
+    /**
+     * Stores the verdict of an analysis-only check of a source.
+     *
+     * @param className the name of the class
+     * @param codes the source code of the class
+     * @param compilable {@code true} if the class compiles, {@code false} otherwise
+     */
+    public synchronized void putCompilable(String className, List<String> codes, boolean compilable) {
+        String key = SourceFingerprint.key(className, codes);
+        Entry entry = lookup(key);
+        if (entry == null) {
+            entry = new Entry(new SourceLayout(codes));
+        }
+
+        entry.compilable = compilable;
+        store(key, entry);
+    }
+
+    /**
+     * Looks up the test outcomes of a source.
+     *
+     * @param className the name of the class
+     * @param codes the source code of the class
+     * @return the cached list of {@link TestResult} with their executed lines matching
+     *         the given source, or {@code null} if the tests were never executed on the source
+     */
+    public synchronized List<TestResult> getTestResults(String className, List<String> codes) {
+        Entry entry = lookup(SourceFingerprint.key(className, codes));
+        if (entry == null || entry.testResults == null) {
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        return translate(entry.testResults, entry.layout, new SourceLayout(codes));
+    }
+
+    /**
+     * Stores the test outcomes of a source.
+     *
+     * @param className the name of the class
+     * @param codes the source code of the class
+     * @param testResults the outcomes of the tests executed on the source
+     */
+    public synchronized void putTestResults(String className, List<String> codes, List<TestResult> testResults) {
+        String key = SourceFingerprint.key(className, codes);
+        Entry entry = lookup(key);
+        SourceLayout layout = new SourceLayout(codes);
+        if (entry == null) {
+            entry = new Entry(layout);
+        }
+
+        entry.testResults = translate(testResults, layout, entry.layout);
+        store(key, entry);
+    }
+
+    /**
+     * Getter for the number of lookups answered by the cache.
+     * @return the number of cache hits (in memory or on disk)
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Getter for the number of lookups the cache could not answer.
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Getter for the number of entries that had to be loaded from the on-disk tier.
+     * @return the number of entries read from disk
+     */
+    public synchronized long getDiskHitCount() {
+        return diskHitCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "EvaluationCache hits=" + hitCount + ", misses=" + missCount
+                + ", disk_hits=" + diskHitCount + ", entries=" + entries.size()
+                + ", size=" + sizeInBytes + "B";
+    }
+
+    private List<TestResult> translate(List<TestResult> testResults, SourceLayout from, SourceLayout to) {
+        if (from.equals(to)) {
+            return testResults;
+        }
+        List<TestResult> translated = new ArrayList<>();
+        for (TestResult result : testResults) {
+            translated.add(new TestResult(result.getTestName(), result.isSucceeded(),
+                    from.translate(result.getExecutedLines(), to), result.getTicks(), result.getAllocatedBytes(),
+                    result.isTimedOut(), result.isClockTimedOut()));
+        }
+        return translated;
+    }
+
+    private Entry lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null || cacheDir == null) {
+            return entry;
+        }
+
+        entry = readFromDisk(key);
+        if (entry != null) {
+            diskHitCount++;
+            entries.put(key, entry);
+            sizeInBytes += entry.size;
+            evict();
+        }
+        return entry;
+    }
+
+    private void store(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            sizeInBytes -= previous.size;
+        }
+        entry.size = entry.computeSize();
+        sizeInBytes += entry.size;
+        evict();
+
+        if (cacheDir != null) {
+            writeToDisk(key, entry);
+        }
+    }
+
+    private void evict() {
+        while (sizeInBytes > maxSizeInBytes && entries.size() > 1) {
+            Map.Entry<String, Entry> eldest = entries.entrySet().iterator().next();
+            sizeInBytes -= eldest.getValue().size;
+            entries.remove(eldest.getKey());
+        }
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        try {
+            Files.createDirectories(cacheDir);
+            Path tmpFile = Files.createTempFile(cacheDir, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                entry.writeTo(out);
+            }
+            Files.move(tmpFile, cacheDir.resolve(key + ".entry"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The on-disk tier is best effort, the entry is still kept in memory
+        }
+    }
+
+    private Entry readFromDisk(String key) {
+        Path file = cacheDir.resolve(key + ".entry");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return Entry.readFrom(in);
+        } catch (IOException e) {
+            // A corrupted or outdated entry is treated as a miss
+            return null;
+        }
+    }
+
+    /**
+     * Everything known about one normalized source, with the line numbers
+     * expressed in the layout of the first source that got stored.
+     */
+    private static class Entry {
+        private final SourceLayout layout;
+        private CompilationResult compilationResult;
+        private Boolean compilable;
+        private List<TestResult> testResults;
+        private long size;
+
+        private Entry(SourceLayout layout) {
+            this.layout = layout;
+        }
+
+        private long computeSize() {
+            long total = 4L * layout.getNonBlankLines().length;
+            if (compilationResult != null) {
+                for (String diagnostic : compilationResult.getDiagnostics()) {
+                    total += 2L * diagnostic.length();
+                }
+                for (byte[] classBytes : compilationResult.getClasses().values()) {
+                    total += classBytes.length;
+                }
+            }
+            if (testResults != null) {
+                for (TestResult result : testResults) {
+                    total += 2L * result.getTestName().length() + 16L * result.getExecutedLines().size() + 9;
+                }
+            }
+            return total;
+        }
+
+        private void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(FILE_FORMAT_VERSION);
+            int[] lines = layout.getNonBlankLines();
+            out.writeInt(lines.length);
+            for (int line : lines) {
+                out.writeInt(line);
+            }
+
+            out.writeBoolean(compilationResult != null);
+            if (compilationResult != null) {
+                out.writeBoolean(compilationResult.isSuccessful());
+                writeStrings(out, compilationResult.getDiagnostics());
+                writeStrings(out, new ArrayList<>(compilationResult.getSourcesWithErrors()));
+                out.writeInt(compilationResult.getClasses().size());
+                for (Map.Entry<String, byte[]> compiledClass : compilationResult.getClasses().entrySet()) {
+                    out.writeUTF(compiledClass.getKey());
+                    out.writeInt(compiledClass.getValue().length);
+                    out.write(compiledClass.getValue());
+                }
+            }
+
+            out.writeBoolean(compilable != null);
+            if (compilable != null) {
+                out.writeBoolean(compilable);
+            }
+
+            out.writeBoolean(testResults != null);
+            if (testResults != null) {
+                out.writeInt(testResults.size());
+                for (TestResult result : testResults) {
+                    out.writeUTF(result.getTestName());
+                    out.writeBoolean(result.isSucceeded());
+                    out.writeInt(result.getExecutedLines().size());
+                    for (int line : result.getExecutedLines()) {
+                        out.writeInt(line);
+                    }
+                    out.writeLong(result.getTicks());
+                    out.writeLong(result.getAllocatedBytes());
+                    out.writeBoolean(result.isTimedOut());
+                }
+            }
+        }
+
+        private static Entry readFrom(DataInputStream in) throws IOException {
+            if (in.readInt() != FILE_FORMAT_VERSION) {
+                throw new IOException("Unsupported cache entry version");
+            }
+            int[] lines = new int[in.readInt()];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = in.readInt();
+            }
+            Entry entry = new Entry(new SourceLayout(lines));
+
+            if (in.readBoolean()) {
+                boolean successful = in.readBoolean();
+                List<String> diagnostics = readStrings(in);
+                Set<String> sourcesWithErrors = new HashSet<>(readStrings(in));
+                int classCount = in.readInt();
+                Map<String, byte[]> classes = new LinkedHashMap<>();
+                for (int i = 0; i < classCount; i++) {
+                    String className = in.readUTF();
+                    byte[] classBytes = new byte[in.readInt()];
+                    in.readFully(classBytes);
+                    classes.put(className, classBytes);
+                }
+                entry.compilationResult = new CompilationResult(successful, diagnostics, sourcesWithErrors, classes);
+            }
+
+            if (in.readBoolean()) {
+                entry.compilable = in.readBoolean();
+            }
+
+            if (in.readBoolean()) {
+                int resultCount = in.readInt();
+                List<TestResult> testResults = new ArrayList<>();
+                for (int i = 0; i < resultCount; i++) {
+                    String testName = in.readUTF();
+                    boolean succeeded = in.readBoolean();
+                    int lineCount = in.readInt();
+                    List<Integer> executedLines = new ArrayList<>();
+                    for (int j = 0; j < lineCount; j++) {
+                        executedLines.add(in.readInt());
+                    }
+                    testResults.add(new TestResult(testName, succeeded, executedLines, in.readLong(), in.readLong(),
+                            in.readBoolean(), false));
+                }
+                entry.testResults = testResults;
+            }
+
+            entry.size = entry.computeSize();
+            return entry;
+        }
+
+        private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                // writeUTF can only encode up to 64KB, the diagnostics are only informative
+                out.writeUTF(string.length() > 8192 ? string.substring(0, 8192) : string);
+            }
+        }
+
+        private static List<String> readStrings(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            List<String> strings = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                strings.add(in.readUTF());
+            }
+            return strings;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.group10.utils.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for computing content-addressed keys of source code. <br>
+ *
+ * Two sources that only differ in blank lines are considered the same source,
+ * which is the same normalization used by {@link org.group10.program.Program#equals(Object)}.
+ */
+public class SourceFingerprint {
+    /**
+     * Normalizes the source code by removing every blank line.
+     *
+     * @param codes the source code as a list of lines
+     * @return the non-blank lines of the source code joined by a line break
+     */
+    public static String normalize(List<String> codes) {
+        return codes.stream()
+                .filter(line -> line != null && !line.isBlank())
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Hashes the given content with SHA-256.
+     *
+     * @param content the content to hash
+     * @return the hash as a lowercase hexadecimal string
+     */
+    public static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+
+    /**
+     * Computes the content-addressed key of a class source.
+     *
+     * @param className the name of the class
+     * @param codes the source code of the class as a list of lines
+     * @return the hash of the class name and its normalized source code
+     */
+    public static String key(String className, List<String> codes) {
+        return hash(className + "\n" + normalize(codes));
+    }
+}
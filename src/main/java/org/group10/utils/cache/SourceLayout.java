@@ -0,0 +1,143 @@
+package org.group10.utils.cache;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The position of the non-blank lines of a source code. <br>
+ *
+ * Sources sharing a {@link SourceFingerprint} only differ in blank lines, so the
+ * n-th non-blank line of one is the n-th non-blank line of the other. This class
+ * uses that to translate line numbers (of a coverage spectrum or of the line number
+ * table of a compiled class) from one source to the other.
+ */
+public class SourceLayout {
+    /**
+     * The (1-based) line numbers of the non-blank lines, in ascending order.
+     */
+    private final int[] nonBlankLines;
+
+    /**
+     * Constructs the layout of the given source code.
+     *
+     * @param codes the source code as a list of lines
+     */
+    public SourceLayout(List<String> codes) {
+        List<Integer> lines = new ArrayList<>();
+        for (int i = 0; i < codes.size(); i++) {
+            String line = codes.get(i);
+            if (line != null && !line.isBlank()) {
+                lines.add(i + 1);
+            }
+        }
+        this.nonBlankLines = lines.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Constructs a layout from already known non-blank line numbers.
+     *
+     * @param nonBlankLines the (1-based) line numbers of the non-blank lines
+     */
+    SourceLayout(int[] nonBlankLines) {
+        this.nonBlankLines = nonBlankLines;
+    }
+
+    /**
+     * Getter for the non-blank line numbers.
+     * @return the (1-based) line numbers of the non-blank lines
+     */
+    int[] getNonBlankLines() {
+        return nonBlankLines;
+    }
+
+    /**
+     * Translates a line number of this layout into the given layout.
+     *
+     * @param line the line number in this layout
+     * @param target the layout to translate to
+     * @return the line number in the target layout, or the same line number if
+     *         it is not a non-blank line of this layout
+     */
+    public int translate(int line, SourceLayout target) {
+        int ordinal = Arrays.binarySearch(nonBlankLines, line);
+        if (ordinal < 0 || ordinal >= target.nonBlankLines.length) {
+            return line;
+        }
+        return target.nonBlankLines[ordinal];
+    }
+
+    /**
+     * Translates a list of line numbers of this layout into the given layout.
+     *
+     * @param lines the line numbers in this layout
+     * @param target the layout to translate to
+     * @return the line numbers in the target layout
+     */
+    public List<Integer> translate(List<Integer> lines, SourceLayout target) {
+        if (this.equals(target)) {
+            return lines;
+        }
+        List<Integer> translated = new ArrayList<>();
+        for (int line : lines) {
+            translated.add(translate(line, target));
+        }
+        return translated;
+    }
+
+    /**
+     * Rewrites the line number table of a compiled class from this layout
+     * into the given layout. <br>
+     *
+     * The bytecode of two sources that only differ in blank lines only differs
+     * in the line number tables, so this gives the same bytecode as compiling
+     * the source of the target layout.
+     *
+     * @param classBytes the bytecode of the class compiled from a source of this layout
+     * @param target the layout to translate to
+     * @return the bytecode with its line numbers in the target layout
+     */
+    public byte[] translate(byte[] classBytes, SourceLayout target) {
+        if (this.equals(target)) {
+            return classBytes;
+        }
+
+        ClassReader cr = new ClassReader(classBytes);
+        ClassWriter cw = new ClassWriter(cr, 0);
+        ClassVisitor cv = new ClassVisitor(Opcodes.ASM9, cw) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc,
+                                             String signature, String[] exceptions) {
+                MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+                return new MethodVisitor(Opcodes.ASM9, mv) {
+                    @Override
+                    public void visitLineNumber(int line, Label start) {
+                        super.visitLineNumber(translate(line, target), start);
+                    }
+                };
+            }
+        };
+        cr.accept(cv, 0);
+        return cw.toByteArray();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof SourceLayout layout) {
+            return Arrays.equals(nonBlankLines, layout.nonBlankLines);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(nonBlankLines);
+    }
+}
@@ -0,0 +1,142 @@
+package org.group10.utils.compiler;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.Remapper;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility class describing the API of compiled classes, as seen by the classes
+ * compiled against them. <br>
+ *
+ * Bytecode compiled against a class stays valid as long as the API of that class
+ * does not change: its access flags, super types, non-private fields (with their
+ * constant values, as constants get inlined) and non-private methods, and the member
+ * classes it declares.
+ */
+public class ApiFingerprint {
+    /**
+     * Describes the API of a single class.
+     *
+     * @param classBytes the bytecode of the class
+     * @return a description of the API of the class, equal for two classes with the same API
+     */
+    public static String of(byte[] classBytes) {
+        StringBuilder description = new StringBuilder();
+        new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            private String className;
+
+            @Override
+            public void visit(int version, int access, String name, String signature,
+                              String superName, String[] interfaces) {
+                className = name;
+                description.append(access).append(' ').append(signature).append(' ')
+                        .append(superName).append(' ').append(Arrays.toString(interfaces)).append('\n');
+            }
+
+            @Override
+            public FieldVisitor visitField(int access, String name, String descriptor,
+                                           String signature, Object value) {
+                if ((access & Opcodes.ACC_PRIVATE) == 0) {
+                    description.append("F ").append(access).append(' ').append(name).append(' ').append(descriptor)
+                            .append(' ').append(signature).append(' ').append(value).append('\n');
+                }
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor,
+                                             String signature, String[] exceptions) {
+                if ((access & Opcodes.ACC_PRIVATE) == 0) {
+                    description.append("M ").append(access).append(' ').append(name).append(' ').append(descriptor)
+                            .append(' ').append(signature).append(' ').append(Arrays.toString(exceptions))
+                            .append('\n');
+                }
+                return null;
+            }
+
+            @Override
+            public void visitInnerClass(String name, String outerName, String innerName, int access) {
+                // Only the member classes declared by the class itself are part of its API
+                if (className.equals(outerName)) {
+                    description.append("I ").append(name).append(' ').append(access).append('\n');
+                }
+            }
+        }, ClassReader.SKIP_CODE);
+        return description.toString();
+    }
+
+    /**
+     * Describes the API of the given classes, and of every super type of them found among the classes.
+     *
+     * @param classes {@link Map} where the key contains the binary class name and the value contains its bytecode
+     * @param classNames the binary names of the classes to describe
+     * @return {@link Map} where the key contains a binary class name and the value contains the
+     *         description of its API, or an empty description if the class is missing
+     */
+    public static Map<String, String> of(Map<String, byte[]> classes, Set<String> classNames) {
+        Map<String, String> api = new LinkedHashMap<>();
+        Deque<String> toDescribe = new ArrayDeque<>(classNames);
+        while (!toDescribe.isEmpty()) {
+            String className = toDescribe.pop();
+            if (api.containsKey(className)) continue;
+
+            byte[] classBytes = classes.get(className);
+            if (classBytes == null) {
+                api.put(className, "");
+                continue;
+            }
+            api.put(className, of(classBytes));
+
+            ClassReader cr = new ClassReader(classBytes);
+            if (cr.getSuperName() != null && classes.containsKey(binaryName(cr.getSuperName()))) {
+                toDescribe.push(binaryName(cr.getSuperName()));
+            }
+            for (String anInterface : cr.getInterfaces()) {
+                if (classes.containsKey(binaryName(anInterface))) {
+                    toDescribe.push(binaryName(anInterface));
+                }
+            }
+        }
+        return api;
+    }
+
+    /**
+     * Collects every class referenced by the given classes.
+     *
+     * @param classBytes the bytecode of the classes
+     * @return the binary names of the referenced classes
+     */
+    public static Set<String> referencedClasses(Collection<byte[]> classBytes) {
+        Set<String> referenced = new HashSet<>();
+        Remapper collector = new Remapper() {
+            @Override
+            public String map(String internalName) {
+                referenced.add(binaryName(internalName));
+                return internalName;
+            }
+        };
+        for (byte[] bytes : classBytes) {
+            // The class node visits everything, so the references inside the code are remapped too
+            new ClassReader(bytes).accept(new ClassRemapper(new ClassNode(), collector), 0);
+        }
+        return referenced;
+    }
+
+    private static String binaryName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+}
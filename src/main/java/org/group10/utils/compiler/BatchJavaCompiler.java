@@ -0,0 +1,195 @@
+package org.group10.utils.compiler;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.Remapper;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for compiling many candidates in a single compilation task. <br>
+ *
+ * Every compilation task pays the startup of the compiler and the setup of the symbol
+ * table. Compiling the candidates of a generation together pays those costs once. <br>
+ *
+ * As every candidate declares the same classes, each one is moved into its own synthetic
+ * package by prepending a package declaration to its first line (so the line numbers are
+ * kept). The produced bytecode is then remapped back into the unnamed package, and the
+ * diagnostics are attributed back to the candidate they were reported in. <br>
+ *
+ * A candidate that fails to compile does not block the others: the compiler generates
+ * no class at all when any error is reported, so the candidates free of errors are
+ * compiled again in a second task.
+ */
+public class BatchJavaCompiler {
+    private static final String PACKAGE_PREFIX = "progrepair_batch_";
+    private static final Pattern PACKAGE_DECLARATION = Pattern.compile("^\\s*package\\s+[\\w.]+\\s*;.*");
+
+    /**
+     * Compiles the given candidates, each candidate being isolated from the others.
+     *
+     * @param candidates the sources of every candidate, as {@link Map}s where the key contains
+     *                   the top-level class name and the value contains its source code
+     * @return the {@link CompilationResult} of every candidate, in the same order as {@code candidates}
+     * @throws IllegalStateException if no Java compiler is available (JRE instead of JDK)
+     */
+    public static List<CompilationResult> compile(List<Map<String, List<String>>> candidates) {
+        CompilationResult[] results = new CompilationResult[candidates.size()];
+        List<Integer> batch = new ArrayList<>();
+
+        for (int i = 0; i < candidates.size(); i++) {
+            // A candidate that already declares a package can not be moved into a synthetic one
+            if (hasPackageDeclaration(candidates.get(i))) {
+                results[i] = InMemoryJavaCompiler.compile(candidates.get(i));
+            } else {
+                batch.add(i);
+            }
+        }
+
+        // First task: every candidate, second task: the candidates that got blocked by the others
+        for (int pass = 0; pass < 2 && !batch.isEmpty(); pass++) {
+            Map<Integer, CompilationResult> settled = compileIsolated(candidates, batch);
+            List<Integer> blocked = new ArrayList<>();
+            for (int i : batch) {
+                if (settled.containsKey(i)) {
+                    results[i] = settled.get(i);
+                } else {
+                    blocked.add(i);
+                }
+            }
+            batch = blocked;
+        }
+
+        for (int i : batch) {
+            results[i] = InMemoryJavaCompiler.compile(candidates.get(i));
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Compiles the given candidates in a single compilation task.
+     *
+     * @param candidates the sources of every candidate
+     * @param indexes the indexes of the candidates to compile
+     * @return {@link Map} where the key contains the index of a candidate and the value contains
+     *         its {@link CompilationResult}. Candidates free of errors in a failing task are missing,
+     *         as the compiler did not generate their classes.
+     */
+    private static Map<Integer, CompilationResult> compileIsolated(List<Map<String, List<String>>> candidates,
+                                                                   List<Integer> indexes) {
+        List<JavaFileObject> compilationUnits = new ArrayList<>();
+        Map<JavaFileObject, Integer> candidateOfSource = new HashMap<>();
+        for (int i : indexes) {
+            String packageName = PACKAGE_PREFIX + i;
+            for (Map.Entry<String, List<String>> source : candidates.get(i).entrySet()) {
+                List<String> codes = new ArrayList<>(source.getValue());
+                if (codes.isEmpty()) {
+                    codes.add("");
+                }
+                // Prepend on the first line so the line numbers stay the same
+                codes.set(0, "package " + packageName + "; " + codes.get(0));
+                JavaFileObject sourceFile = new SourceCodeFileObject(packageName + "." + source.getKey(), codes);
+                compilationUnits.add(sourceFile);
+                candidateOfSource.put(sourceFile, i);
+            }
+        }
+
+        CompilerService.Output output = CompilerService.getInstance().compile(compilationUnits);
+        boolean successful = output.isSuccessful();
+
+        Map<Integer, List<Diagnostic<? extends JavaFileObject>>> diagnosticsOfCandidate = new HashMap<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : output.getDiagnostics()) {
+            Integer candidate = candidateOfSource.get(diagnostic.getSource());
+            if (candidate == null) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    // An error that can not be attributed to any candidate settles nothing
+                    return Map.of();
+                }
+                continue;
+            }
+            diagnosticsOfCandidate.computeIfAbsent(candidate, k -> new ArrayList<>()).add(diagnostic);
+        }
+
+        Map<String, Map<String, byte[]>> classesOfPackage = new HashMap<>();
+        for (Map.Entry<String, byte[]> compiledClass : output.getClasses().entrySet()) {
+            String qualifiedName = compiledClass.getKey();
+            String packageName = qualifiedName.substring(0, qualifiedName.indexOf('.'));
+            String className = qualifiedName.substring(packageName.length() + 1);
+            classesOfPackage.computeIfAbsent(packageName, k -> new LinkedHashMap<>())
+                    .put(className, toUnnamedPackage(packageName, compiledClass.getValue()));
+        }
+
+        Map<Integer, CompilationResult> results = new HashMap<>();
+        for (int i : indexes) {
+            List<Diagnostic<? extends JavaFileObject>> candidateDiagnostics =
+                    diagnosticsOfCandidate.getOrDefault(i, List.of());
+            boolean hasError = candidateDiagnostics.stream()
+                    .anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR);
+
+            if (successful || hasError) {
+                Map<String, byte[]> classes = hasError
+                        ? Map.of()
+                        : classesOfPackage.getOrDefault(PACKAGE_PREFIX + i, Map.of());
+                CompilationResult result =
+                        InMemoryJavaCompiler.toCompilationResult(!hasError, candidateDiagnostics, classes);
+                results.put(i, withoutPackage(PACKAGE_PREFIX + i, result));
+            }
+        }
+
+        return results;
+    }
+
+    private static boolean hasPackageDeclaration(Map<String, List<String>> sources) {
+        return sources.values().stream()
+                .flatMap(List::stream)
+                .anyMatch(line -> line != null && PACKAGE_DECLARATION.matcher(line).matches());
+    }
+
+    /**
+     * Remaps the bytecode of a class compiled in a synthetic package into the unnamed package.
+     *
+     * @param packageName the name of the synthetic package
+     * @param classBytes the bytecode of the class
+     * @return the bytecode of the same class declared in the unnamed package
+     */
+    private static byte[] toUnnamedPackage(String packageName, byte[] classBytes) {
+        String internalPrefix = packageName + "/";
+        Remapper remapper = new Remapper() {
+            @Override
+            public String map(String internalName) {
+                if (internalName.startsWith(internalPrefix)) {
+                    return internalName.substring(internalPrefix.length());
+                }
+                return internalName;
+            }
+        };
+
+        ClassReader cr = new ClassReader(classBytes);
+        ClassWriter cw = new ClassWriter(0);
+        cr.accept(new ClassRemapper(cw, remapper), 0);
+        return cw.toByteArray();
+    }
+
+    /**
+     * Removes the synthetic package from the diagnostics of a compilation result.
+     */
+    private static CompilationResult withoutPackage(String packageName, CompilationResult result) {
+        List<String> diagnostics = result.getDiagnostics().stream()
+                .map(d -> d.replace(packageName + "/", "")
+                        .replace(packageName + ".", "")
+                        .replace("package " + packageName + "; ", ""))
+                .toList();
+        return new CompilationResult(result.isSuccessful(), diagnostics,
+                result.getSourcesWithErrors(), result.getClasses());
+    }
+}
@@ -0,0 +1,67 @@
+package org.group10.utils.compiler;
+
+import javax.tools.SimpleJavaFileObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * A {@link javax.tools.JavaFileObject} that receives the bytecode of a compiled
+ * class in memory instead of writing it to a {@code .class} file. <br>
+ *
+ * It can also hold the bytecode of an already compiled class, so the compiler
+ * can read it from the classpath.
+ */
+public class ByteCodeFileObject extends SimpleJavaFileObject {
+    private final String className;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    /**
+     * Constructs a bytecode file object for the given class.
+     *
+     * @param className the binary name of the class (e.g., "Shop" or "Shop$Item")
+     */
+    public ByteCodeFileObject(String className) {
+        super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+        this.className = className;
+    }
+
+    /**
+     * Constructs a bytecode file object holding an already compiled class.
+     *
+     * @param className the binary name of the class
+     * @param classBytes the bytecode of the class
+     */
+    public ByteCodeFileObject(String className, byte[] classBytes) {
+        this(className);
+        bytes.writeBytes(classBytes);
+    }
+
+    @Override
+    public InputStream openInputStream() {
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+
+    @Override
+    public OutputStream openOutputStream() {
+        return bytes;
+    }
+
+    /**
+     * Getter for the binary name of the compiled class.
+     * @return the binary name of the class
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Getter for the bytecode written by the compiler.
+     * @return the bytecode of the class
+     */
+    public byte[] getBytes() {
+        return bytes.toByteArray();
+    }
+}
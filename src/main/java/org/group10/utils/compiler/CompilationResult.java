@@ -0,0 +1,105 @@
+package org.group10.utils.compiler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The outcome of a single compilation task. <br>
+ *
+ * Contains whether the compilation succeeded, the diagnostics reported by
+ * the compiler, the sources the errors were reported in and the bytecode of
+ * every produced class (empty if the compilation failed).
+ */
+public class CompilationResult {
+    /**
+     * Marker used in {@link #getSourcesWithErrors()} for errors that are not
+     * attached to any source file (e.g., invalid compiler options).
+     */
+    public static final String UNKNOWN_SOURCE = "";
+
+    private final boolean successful;
+    private final List<String> diagnostics;
+    private final Set<String> sourcesWithErrors;
+    private final Map<String, byte[]> classes;
+
+    /**
+     * Constructs a compilation result.
+     *
+     * @param successful {@code true} if the compiler reported no error
+     * @param diagnostics the diagnostics reported by the compiler
+     * @param sourcesWithErrors the names of the top-level classes whose source has an error
+     * @param classes {@link Map} where the key contains the binary class name
+     *                and the value contains its bytecode
+     */
+    public CompilationResult(boolean successful, List<String> diagnostics,
+                             Set<String> sourcesWithErrors, Map<String, byte[]> classes) {
+        this.successful = successful;
+        this.diagnostics = diagnostics;
+        this.sourcesWithErrors = sourcesWithErrors;
+        this.classes = classes;
+    }
+
+    /**
+     * Check if the compilation finished without any error.
+     * @return {@code true} if every source compiled, {@code false} otherwise
+     */
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    /**
+     * Check if the given top-level class compiled. <br>
+     *
+     * When several sources are compiled together, a failing compilation can
+     * still leave some of them free of errors. A source is considered compilable
+     * if the compilation succeeded, or if the compiler reported errors but none
+     * of them are located in that source.
+     *
+     * @param className the name of the top-level class (source file "{@code className}.java")
+     * @return {@code true} if the source of the class has no compile error
+     */
+    public boolean isCompilable(String className) {
+        if (successful) {
+            return true;
+        }
+
+        return !sourcesWithErrors.isEmpty()
+                && !sourcesWithErrors.contains(className)
+                && !sourcesWithErrors.contains(UNKNOWN_SOURCE);
+    }
+
+    /**
+     * Getter for the diagnostics reported by the compiler.
+     * @return the list of diagnostics (errors, warnings and notes) as printed by the compiler
+     */
+    public List<String> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Getter for the sources the compiler reported errors in.
+     * @return the names of the top-level classes whose source has an error
+     */
+    public Set<String> getSourcesWithErrors() {
+        return sourcesWithErrors;
+    }
+
+    /**
+     * Getter for the compiled classes.
+     * @return {@link Map} where the key contains the binary class name
+     * and the value contains its bytecode
+     */
+    public Map<String, byte[]> getClasses() {
+        return classes;
+    }
+
+    /**
+     * Prints every diagnostic reported by the compiler to the standard error.
+     */
+    public void printDiagnostics() {
+        for (String diagnostic : diagnostics) {
+            System.err.println(diagnostic);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package org.group10.utils.compiler;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool of workers running the compilations (and compilability checks) of the search, as
+ * well as the evaluations of the candidates, see {@link org.group10.program.Program#evaluateAll}. <br>
+ *
+ * Every worker keeps its own warm compiler context, see {@link CompilerService}. The
+ * submission queue is bounded: once it is full, the submitting thread runs the task
+ * itself, which slows the submission down to the pace of the workers instead of
+ * piling up candidates in memory. <br>
+ *
+ * The depth of the queue and the utilisation of the workers (the share of their time
+ * spent running tasks since the pool was created) are recorded.
+ */
+public class CompileExecutor implements AutoCloseable {
+    /**
+     * Default number of workers: one per available processor.
+     */
+    public static final int DEFAULT_WORKERS = Runtime.getRuntime().availableProcessors();
+
+    private final int workers;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+    private final long createdAt = System.nanoTime();
+
+    private long submittedCount = 0;
+    private long completedCount = 0;
+    private long callerRunCount = 0;
+    private long busyNanos = 0;
+    private int maxQueueDepth = 0;
+
+    /**
+     * Constructs a {@link CompileExecutor} with a submission queue of 4 tasks per worker.
+     *
+     * @param workers the number of workers, {@link #DEFAULT_WORKERS} if non-positive
+     */
+    public CompileExecutor(int workers) {
+        this(workers, 4 * Math.max(workers > 0 ? workers : DEFAULT_WORKERS, 1));
+    }
+
+    /**
+     * Constructs a {@link CompileExecutor}.
+     *
+     * @param workers the number of workers, {@link #DEFAULT_WORKERS} if non-positive
+     * @param queueCapacity the maximum number of tasks waiting for a worker
+     */
+    public CompileExecutor(int workers, int queueCapacity) {
+        this.workers = Math.max(workers > 0 ? workers : DEFAULT_WORKERS, 1);
+        this.queueCapacity = Math.max(queueCapacity, 1);
+        this.executor = new ThreadPoolExecutor(this.workers, this.workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity), new WorkerThreadFactory(),
+                (task, pool) -> {
+                    // Backpressure: the submitting thread runs the task itself
+                    recordCallerRun();
+                    task.run();
+                });
+    }
+
+    /**
+     * Submits a task to the workers. <br>
+     *
+     * If the submission queue is full (or the pool is closed), the task is run by the
+     * calling thread before returning.
+     *
+     * @param task the task to run
+     * @return a {@link CompletableFuture} completed with the outcome of the task
+     * @param <T> the type of the outcome of the task
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                recordCompletion(System.nanoTime() - start);
+            }
+        });
+        recordSubmission();
+        return future;
+    }
+
+    /**
+     * Waits for the outcome of a submitted task.
+     *
+     * @param future the {@link CompletableFuture} returned by {@link #submit(Supplier)}
+     * @return the outcome of the task
+     * @param <T> the type of the outcome of the task
+     * @throws RuntimeException the exception thrown by the task, if any
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Getter for the number of workers.
+     * @return the number of workers
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Gets the number of tasks currently waiting for a worker.
+     * @return the depth of the submission queue
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Gets the deepest the submission queue has been so far.
+     * @return the maximum depth of the submission queue
+     */
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Gets the number of tasks completed so far, by the workers or by the submitting threads.
+     * @return the number of completed tasks
+     */
+    public synchronized long getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * Gets the share of the time of the workers spent running tasks since the pool was created.
+     * @return the utilisation of the workers, between 0 and 1
+     */
+    public synchronized double getUtilisation() {
+        long elapsed = System.nanoTime() - createdAt;
+        if (elapsed <= 0) {
+            return 0;
+        }
+        return Math.min(1.0, (double) busyNanos / ((double) elapsed * workers));
+    }
+
+    /**
+     * Stops the workers once the submitted tasks are done.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("CompileExecutor workers=%d, queue_capacity=%d, submitted=%d, completed=%d, "
+                        + "caller_runs=%d, queue_depth=%d, max_queue_depth=%d, utilisation=%.1f%%",
+                workers,
+                queueCapacity,
+                submittedCount,
+                completedCount,
+                callerRunCount,
+                getQueueDepth(),
+                maxQueueDepth,
+                getUtilisation() * 100);
+    }
+
+    private synchronized void recordSubmission() {
+        submittedCount++;
+        maxQueueDepth = Math.max(maxQueueDepth, getQueueDepth());
+    }
+
+    private synchronized void recordCompletion(long nanos) {
+        completedCount++;
+        busyNanos += nanos;
+    }
+
+    private synchronized void recordCallerRun() {
+        callerRunCount++;
+    }
+
+    /**
+     * Creates daemon workers, so an idle pool never keeps the application alive.
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+        private final int poolId = POOL_COUNT.incrementAndGet();
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "compile-worker-" + poolId + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
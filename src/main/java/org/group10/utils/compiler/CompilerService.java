@@ -0,0 +1,369 @@
+package org.group10.utils.compiler;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Long-lived compiler shared by every compilation of the search. <br>
+ *
+ * Creating a file manager indexes the JDK platform classes and every archive of the
+ * classpath, which is the whole shaded ProgRepair JAR when started from it. This
+ * service keeps one warm {@link IndexedFileManager} per thread (the javac file manager
+ * is not thread-safe), so the archives stay open and the package lookups are cached
+ * from one compilation to the next. <br>
+ *
+ * The programs are compiled against a minimal classpath holding only JUnit (and the
+ * libraries its annotations refer to), on top of the JDK. <br>
+ *
+ * The latency of every compilation is recorded, the first compilation of each thread
+ * being reported separately as the warm-up. <br>
+ *
+ * Besides the full compilation, the service offers an analysis-only check (see
+ * {@link #analyze(List)}) which never generates class files and stops at the first error.
+ */
+public class CompilerService {
+    /**
+     * The packages visible on the classpath of the compiled programs.
+     */
+    public static final Set<String> VISIBLE_PACKAGES = Set.of("org.junit", "org.opentest4j", "org.apiguardian");
+
+    private static final List<String> CLASSPATH_MARKERS = List.of(
+            "org.junit.jupiter.api.Test",
+            "org.junit.jupiter.params.ParameterizedTest",
+            "org.junit.platform.commons.annotation.Testable",
+            "org.opentest4j.AssertionFailedError",
+            "org.apiguardian.api.API"
+    );
+    private static final List<String> OPTIONS = List.of("-g");
+    private static final CompilerService INSTANCE = new CompilerService();
+
+    private final JavaCompiler compiler;
+    private final List<File> classpath;
+    private final ThreadLocal<IndexedFileManager> fileManagers;
+
+    private long warmUpCount = 0;
+    private long warmUpNanos = 0;
+    private long compileCount = 0;
+    private long compileNanos = 0;
+    private long maxCompileNanos = 0;
+    private long analyzeCount = 0;
+    private long analyzeNanos = 0;
+    private long parseRejectCount = 0;
+    private long analyzeRejectCount = 0;
+
+    private CompilerService() {
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        this.classpath = findMinimalClasspath();
+        this.fileManagers = ThreadLocal.withInitial(this::createFileManager);
+    }
+
+    /**
+     * Gets the compiler service shared by the whole application.
+     *
+     * @return the {@link CompilerService}
+     */
+    public static CompilerService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Compiles the given compilation units together in a single compilation task,
+     * reusing the warm file manager of the current thread.
+     *
+     * @param compilationUnits the sources to compile
+     * @return the {@link Output} of the compilation task
+     * @throws IllegalStateException if no Java compiler is available (JRE instead of JDK)
+     */
+    public Output compile(List<JavaFileObject> compilationUnits) {
+        return compile(compilationUnits, Map.of());
+    }
+
+    /**
+     * Compiles the given compilation units against already compiled classes of the
+     * unnamed package, reusing the warm file manager of the current thread.
+     *
+     * @param compilationUnits the sources to compile
+     * @param classpathClasses {@link Map} where the key contains the binary name of a class
+     *                         put on the classpath and the value contains its bytecode
+     * @return the {@link Output} of the compilation task
+     * @throws IllegalStateException if no Java compiler is available (JRE instead of JDK)
+     */
+    public Output compile(List<JavaFileObject> compilationUnits, Map<String, byte[]> classpathClasses) {
+        if (compiler == null) {
+            throw new IllegalStateException("Can not find java compiler from the system");
+        }
+
+        IndexedFileManager indexedFileManager = fileManagers.get();
+        boolean warmUp = indexedFileManager.getCachedLookupCount() == 0;
+        long start = System.nanoTime();
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (InMemoryFileManager fileManager = new InMemoryFileManager(indexedFileManager)) {
+            fileManager.addClasspathClasses(classpathClasses);
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    OPTIONS,
+                    null,
+                    compilationUnits
+            );
+
+            boolean successful = task.call();
+            Map<String, byte[]> classes = successful ? fileManager.getCompiledClasses() : Map.of();
+
+            record(warmUp, System.nanoTime() - start);
+            return new Output(successful, diagnostics.getDiagnostics(), classes);
+        } catch (IOException e) {
+            throw new IllegalStateException("Fail to close the in-memory file manager", e);
+        }
+    }
+
+    /**
+     * Checks whether the given compilation units compile, without generating any class file. <br>
+     *
+     * The sources are parsed and analyzed (attribution and flow analysis) only, and the
+     * check bails out on the first error reported by the compiler instead of collecting
+     * every error of the sources.
+     *
+     * @param compilationUnits the sources to check
+     * @return {@code true} if the compiler reports no error, {@code false} otherwise
+     * @throws IllegalStateException if no Java compiler is available (JRE instead of JDK)
+     */
+    public boolean analyze(List<JavaFileObject> compilationUnits) {
+        if (compiler == null) {
+            throw new IllegalStateException("Can not find java compiler from the system");
+        }
+
+        IndexedFileManager indexedFileManager = fileManagers.get();
+        long start = System.nanoTime();
+
+        DiagnosticListener<JavaFileObject> failFast = diagnostic -> {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                throw new FirstErrorException();
+            }
+        };
+        PhaseListener phaseListener = new PhaseListener();
+
+        try (InMemoryFileManager fileManager = new InMemoryFileManager(indexedFileManager)) {
+            JavacTask task = (JavacTask) compiler.getTask(
+                    null,
+                    fileManager,
+                    failFast,
+                    OPTIONS,
+                    null,
+                    compilationUnits
+            );
+            task.addTaskListener(phaseListener);
+
+            boolean compilable;
+            try {
+                task.parse();
+                task.analyze();
+                compilable = true;
+            } catch (RuntimeException e) {
+                if (!isFirstError(e)) {
+                    throw e;
+                }
+                compilable = false;
+            }
+
+            recordAnalysis(compilable ? null : phaseListener.phase, System.nanoTime() - start);
+            return compilable;
+        } catch (IOException e) {
+            throw new IllegalStateException("Fail to close the in-memory file manager", e);
+        }
+    }
+
+    /**
+     * Gets the classpath the programs are compiled against.
+     *
+     * @return the entries of the classpath, or an empty {@link List} if the default classpath is used
+     */
+    public List<File> getClasspath() {
+        return classpath;
+    }
+
+    /**
+     * Gets the number of compilations done after the warm-up.
+     *
+     * @return the number of warm compilations
+     */
+    public synchronized long getCompileCount() {
+        return compileCount;
+    }
+
+    /**
+     * Gets the mean latency of the compilations done after the warm-up.
+     *
+     * @return the mean latency in milliseconds
+     */
+    public synchronized double getMeanCompileTime() {
+        return compileCount == 0 ? 0 : compileNanos / 1_000_000.0 / compileCount;
+    }
+
+    /**
+     * Gets the number of analysis-only checks done so far.
+     *
+     * @return the number of checks
+     */
+    public synchronized long getAnalyzeCount() {
+        return analyzeCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("CompilerService compiles=%d, mean=%.2fms, max=%.2fms, warm_ups=%d, warm_up_mean=%.2fms, "
+                        + "analyses=%d, analysis_mean=%.2fms, rejected_on_parse=%d, rejected_on_analyze=%d",
+                compileCount,
+                getMeanCompileTime(),
+                maxCompileNanos / 1_000_000.0,
+                warmUpCount,
+                warmUpCount == 0 ? 0 : warmUpNanos / 1_000_000.0 / warmUpCount,
+                analyzeCount,
+                analyzeCount == 0 ? 0 : analyzeNanos / 1_000_000.0 / analyzeCount,
+                parseRejectCount,
+                analyzeRejectCount);
+    }
+
+    private synchronized void record(boolean warmUp, long nanos) {
+        if (warmUp) {
+            warmUpCount++;
+            warmUpNanos += nanos;
+        } else {
+            compileCount++;
+            compileNanos += nanos;
+            maxCompileNanos = Math.max(maxCompileNanos, nanos);
+        }
+    }
+
+    private synchronized void recordAnalysis(TaskEvent.Kind rejectedPhase, long nanos) {
+        analyzeCount++;
+        analyzeNanos += nanos;
+        if (rejectedPhase == TaskEvent.Kind.PARSE) {
+            parseRejectCount++;
+        } else if (rejectedPhase != null) {
+            analyzeRejectCount++;
+        }
+    }
+
+    /**
+     * Checks whether the exception comes from the fail-fast listener, the compiler
+     * may wrap the exceptions thrown by the listeners it calls.
+     */
+    private static boolean isFirstError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FirstErrorException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private IndexedFileManager createFileManager() {
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, null);
+        if (!classpath.isEmpty()) {
+            try {
+                standardFileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+            } catch (IOException e) {
+                System.err.println("Fail to set the minimal classpath, using the default one: " + e.getMessage());
+            }
+        }
+        return new IndexedFileManager(standardFileManager, VISIBLE_PACKAGES);
+    }
+
+    /**
+     * Finds the archives (or directories) providing JUnit and the libraries its annotations refer to.
+     *
+     * @return the entries of the minimal classpath, or an empty {@link List} if JUnit can not be located
+     */
+    private static List<File> findMinimalClasspath() {
+        Set<File> entries = new LinkedHashSet<>();
+        for (String marker : CLASSPATH_MARKERS) {
+            try {
+                Class<?> markerClass = Class.forName(marker, false, CompilerService.class.getClassLoader());
+                CodeSource codeSource = markerClass.getProtectionDomain().getCodeSource();
+                if (codeSource != null && codeSource.getLocation() != null) {
+                    entries.add(new File(codeSource.getLocation().toURI()));
+                }
+            } catch (ClassNotFoundException | URISyntaxException | IllegalArgumentException e) {
+                // The library is optional (e.g. JUnit params), or not loaded from a file
+            }
+        }
+        return new ArrayList<>(entries);
+    }
+
+    /**
+     * The outcome of a compilation task.
+     */
+    public static class Output {
+        private final boolean successful;
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        private final Map<String, byte[]> classes;
+
+        private Output(boolean successful,
+                       List<Diagnostic<? extends JavaFileObject>> diagnostics,
+                       Map<String, byte[]> classes) {
+            this.successful = successful;
+            this.diagnostics = diagnostics;
+            this.classes = classes;
+        }
+
+        public boolean isSuccessful() {
+            return successful;
+        }
+
+        public List<Diagnostic<? extends JavaFileObject>> getDiagnostics() {
+            return diagnostics;
+        }
+
+        /**
+         * Gets the compiled classes, which are empty if the compilation failed.
+         */
+        public Map<String, byte[]> getClasses() {
+            return classes;
+        }
+    }
+
+    /**
+     * Thrown from the diagnostic listener to abort the compiler on the first error.
+     */
+    private static class FirstErrorException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private FirstErrorException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Keeps track of the compiler phase in progress, to know where the first error was reported.
+     */
+    private static class PhaseListener implements TaskListener {
+        private TaskEvent.Kind phase = TaskEvent.Kind.PARSE;
+
+        @Override
+        public void started(TaskEvent e) {
+            phase = e.getKind();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.group10.utils.compiler;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link javax.tools.JavaFileManager} that keeps every class file produced by
+ * the compiler in memory. <br>
+ *
+ * Lookups of the JDK and the classpath are still delegated to the underlying file
+ * manager, only the output side is redirected to {@link ByteCodeFileObject}s.
+ * Already compiled classes of the unnamed package can be added to the classpath
+ * with {@link #addClasspathClasses(Map)}.
+ */
+public class InMemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+    private final Map<String, ByteCodeFileObject> compiledClasses = new LinkedHashMap<>();
+    private final List<JavaFileObject> classpathClasses = new ArrayList<>();
+
+    /**
+     * Constructs an in-memory file manager on top of the given standard file manager.
+     *
+     * @param fileManager the file manager used to resolve the JDK and classpath
+     */
+    public InMemoryFileManager(JavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+    /**
+     * Adds already compiled classes of the unnamed package to the classpath.
+     *
+     * @param classes {@link Map} where the key contains the binary class name
+     *                and the value contains its bytecode
+     */
+    public void addClasspathClasses(Map<String, byte[]> classes) {
+        for (Map.Entry<String, byte[]> compiledClass : classes.entrySet()) {
+            classpathClasses.add(new ByteCodeFileObject(compiledClass.getKey(), compiledClass.getValue()));
+        }
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(Location location, String packageName,
+                                         Set<JavaFileObject.Kind> kinds, boolean recurse) throws IOException {
+        Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+        if (classpathClasses.isEmpty() || location != StandardLocation.CLASS_PATH
+                || !packageName.isEmpty() || !kinds.contains(JavaFileObject.Kind.CLASS)) {
+            return files;
+        }
+
+        List<JavaFileObject> allFiles = new ArrayList<>(classpathClasses);
+        files.forEach(allFiles::add);
+        return allFiles;
+    }
+
+    @Override
+    public String inferBinaryName(Location location, JavaFileObject file) {
+        if (file instanceof ByteCodeFileObject classFile) {
+            return classFile.getClassName();
+        }
+        return super.inferBinaryName(location, file);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                               JavaFileObject.Kind kind, FileObject sibling) {
+        ByteCodeFileObject classFile = new ByteCodeFileObject(className);
+        compiledClasses.put(className, classFile);
+        return classFile;
+    }
+
+    /**
+     * Collects the bytecode of every class produced by the compiler so far.
+     *
+     * @return {@link Map} where the key contains the binary class name
+     * and the value contains its bytecode
+     */
+    public Map<String, byte[]> getCompiledClasses() {
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (Map.Entry<String, ByteCodeFileObject> entry : compiledClasses.entrySet()) {
+            classes.put(entry.getKey(), entry.getValue().getBytes());
+        }
+        return classes;
+    }
+}
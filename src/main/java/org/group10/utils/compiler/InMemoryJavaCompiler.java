@@ -0,0 +1,91 @@
+package org.group10.utils.compiler;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility class for compiling Java source code entirely in memory. <br>
+ *
+ * The sources are handed to the compiler as {@link SourceCodeFileObject}s and the
+ * produced class files are collected by an {@link InMemoryFileManager}, so no
+ * temporary directory is ever created (and nothing has to be cleaned up afterward). <br>
+ *
+ * The compilation itself is delegated to the warm {@link CompilerService}.
+ */
+public class InMemoryJavaCompiler {
+    /**
+     * Compiles the given sources together in a single compilation task. <br>
+     *
+     * Every diagnostic is collected into the returned {@link CompilationResult}
+     * instead of being printed, so the caller decides whether it should be logged.
+     *
+     * @param sources {@link Map} where the key contains the top-level class name
+     *                and the value contains its source code as a list of lines
+     * @return the {@link CompilationResult} of the compilation
+     * @throws IllegalStateException if no Java compiler is available (JRE instead of JDK)
+     */
+    public static CompilationResult compile(Map<String, List<String>> sources) {
+        List<JavaFileObject> compilationUnits = new ArrayList<>();
+        for (Map.Entry<String, List<String>> source : sources.entrySet()) {
+            compilationUnits.add(new SourceCodeFileObject(source.getKey(), source.getValue()));
+        }
+
+        CompilerService.Output output = CompilerService.getInstance().compile(compilationUnits);
+        return toCompilationResult(output.isSuccessful(), output.getDiagnostics(), output.getClasses());
+    }
+
+    /**
+     * Checks whether the given sources compile, without generating any class file
+     * and stopping at the first error, see {@link CompilerService#analyze(List)}.
+     *
+     * @param sources {@link Map} where the key contains the top-level class name
+     *                and the value contains its source code as a list of lines
+     * @return {@code true} if the sources compile, {@code false} otherwise
+     * @throws IllegalStateException if no Java compiler is available (JRE instead of JDK)
+     */
+    public static boolean check(Map<String, List<String>> sources) {
+        List<JavaFileObject> compilationUnits = new ArrayList<>();
+        for (Map.Entry<String, List<String>> source : sources.entrySet()) {
+            compilationUnits.add(new SourceCodeFileObject(source.getKey(), source.getValue()));
+        }
+
+        return CompilerService.getInstance().analyze(compilationUnits);
+    }
+
+    /**
+     * Converts the outcome of a compilation task into a {@link CompilationResult},
+     * attributing every error diagnostic to the top-level class of its source.
+     *
+     * @param successful {@code true} if the compiler reported no error
+     * @param diagnostics the diagnostics reported by the compiler
+     * @param classes the compiled classes
+     * @return the {@link CompilationResult} of the compilation
+     */
+    static CompilationResult toCompilationResult(boolean successful,
+                                                 List<Diagnostic<? extends JavaFileObject>> diagnostics,
+                                                 Map<String, byte[]> classes) {
+        List<String> messages = new ArrayList<>();
+        Set<String> sourcesWithErrors = new HashSet<>();
+
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+            messages.add(diagnostic.toString());
+            if (diagnostic.getKind() != Diagnostic.Kind.ERROR) continue;
+
+            JavaFileObject source = diagnostic.getSource();
+            if (source == null) {
+                sourcesWithErrors.add(CompilationResult.UNKNOWN_SOURCE);
+            } else {
+                String fileName = source.toUri().getPath();
+                fileName = fileName.substring(fileName.lastIndexOf('/') + 1);
+                sourcesWithErrors.add(fileName.replaceAll("\\.java$", ""));
+            }
+        }
+
+        return new CompilationResult(successful, messages, sourcesWithErrors, classes);
+    }
+}
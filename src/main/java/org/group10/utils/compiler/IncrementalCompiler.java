@@ -0,0 +1,291 @@
+package org.group10.utils.compiler;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import javax.tools.JavaFileObject;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility class for recompiling only the top-level types of a source that changed
+ * relative to an already compiled parent source. <br>
+ *
+ * Sources like {@code Shop.java} hold many top-level types, while a mutation only
+ * touches one of them. A top-level type is unchanged if its lines are identical to
+ * the ones of the same type in the parent, possibly at another position. The source
+ * is compiled with the lines of every unchanged type blanked out (so the line numbers
+ * are kept), against the bytecode of the parent for the unchanged types. The bytecode
+ * of the unchanged types is then reused, with its line numbers shifted to the new
+ * position of the type. <br>
+ *
+ * The reuse is only valid if the changed types keep the same API, as the unchanged
+ * types (and the tests) were compiled against it. Whenever the API of a changed type
+ * differs, or the structure of the source changed, the incremental compilation gives
+ * up and the caller has to compile the whole source.
+ */
+public class IncrementalCompiler {
+    private static long incrementalCount = 0;
+    private static long fallbackCount = 0;
+    private static long reusedClassCount = 0;
+
+    /**
+     * Compiles the given source incrementally, based on the compilation outcome of its parent.
+     *
+     * @param className the name of the top-level class of the source
+     * @param parentCodes the source code of the parent as a list of lines
+     * @param parentResult the {@link CompilationResult} of the parent, compiled with the test suite
+     * @param codes the source code to compile as a list of lines
+     * @return the {@link CompilationResult} of the source as if it was compiled with the test suite,
+     *         or {@code null} if the source can not be compiled incrementally
+     */
+    public static CompilationResult compile(String className, List<String> parentCodes,
+                                            CompilationResult parentResult, List<String> codes) {
+        CompilationResult result = parentResult.isSuccessful()
+                ? tryCompile(className, parentCodes, parentResult, codes)
+                : null;
+        record(result != null);
+        return result;
+    }
+
+    private static CompilationResult tryCompile(String className, List<String> parentCodes,
+                                                CompilationResult parentResult, List<String> codes) {
+        List<TypeSpan> parentTypes = findTopLevelTypes(parentCodes);
+        List<TypeSpan> types = findTopLevelTypes(codes);
+        if (parentTypes == null || types == null || parentTypes.size() != types.size()) {
+            return null;
+        }
+        if (!outsideLines(parentCodes, parentTypes).equals(outsideLines(codes, types))) {
+            return null;
+        }
+
+        List<String> blankedCodes = new ArrayList<>(codes);
+        Map<String, Integer> unchangedTypes = new LinkedHashMap<>();
+        Set<String> changedTypes = new HashSet<>();
+        for (int i = 0; i < types.size(); i++) {
+            TypeSpan parentType = parentTypes.get(i);
+            TypeSpan type = types.get(i);
+            if (!parentType.name.equals(type.name)) {
+                return null;
+            }
+
+            if (parentType.lines(parentCodes).equals(type.lines(codes))) {
+                unchangedTypes.put(type.name, type.begin - parentType.begin);
+                for (int line = type.begin; line <= type.end; line++) {
+                    blankedCodes.set(line - 1, "");
+                }
+            } else {
+                changedTypes.add(type.name);
+            }
+        }
+        if (changedTypes.isEmpty() || unchangedTypes.isEmpty()) {
+            return null;
+        }
+
+        // The classes of the unchanged types, with the line numbers of the new source
+        Map<String, byte[]> reusedClasses = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> compiledClass : parentResult.getClasses().entrySet()) {
+            String type = topLevelTypeOf(compiledClass.getKey(), unchangedTypes.keySet());
+            if (type != null) {
+                reusedClasses.put(compiledClass.getKey(),
+                        shiftLines(compiledClass.getValue(), unchangedTypes.get(type)));
+            }
+        }
+
+        List<JavaFileObject> compilationUnits = List.of(new SourceCodeFileObject(className, blankedCodes));
+        CompilerService.Output output = CompilerService.getInstance().compile(compilationUnits, reusedClasses);
+        CompilationResult result = InMemoryJavaCompiler.toCompilationResult(
+                output.isSuccessful(), output.getDiagnostics(), output.getClasses());
+        if (!output.isSuccessful()) {
+            // An error in one of the changed types is an error of the whole source as well
+            return result.getSourcesWithErrors().equals(Set.of(className)) ? result : null;
+        }
+
+        if (!apiOf(parentResult.getClasses(), changedTypes).equals(apiOf(result.getClasses(), changedTypes))) {
+            return null;
+        }
+
+        // Same order as the parent: test classes and unchanged types, then the recompiled types
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> compiledClass : parentResult.getClasses().entrySet()) {
+            String name = compiledClass.getKey();
+            if (reusedClasses.containsKey(name)) {
+                classes.put(name, reusedClasses.get(name));
+            } else if (topLevelTypeOf(name, changedTypes) == null) {
+                classes.put(name, compiledClass.getValue());
+            }
+        }
+        classes.putAll(result.getClasses());
+
+        synchronized (IncrementalCompiler.class) {
+            reusedClassCount += reusedClasses.size();
+        }
+        return new CompilationResult(true, result.getDiagnostics(), result.getSourcesWithErrors(), classes);
+    }
+
+    /**
+     * Finds the line span of every top-level type of a source.
+     *
+     * @return the spans in declaration order, or {@code null} if the source can not be parsed
+     *         or if two types share a line
+     */
+    private static List<TypeSpan> findTopLevelTypes(List<String> codes) {
+        ParserConfiguration config = new ParserConfiguration()
+                .setLanguageLevel(ParserConfiguration.LanguageLevel.RAW)
+                .setAttributeComments(false);
+        ParseResult<CompilationUnit> parsed = new JavaParser(config).parse(String.join("\n", codes));
+        if (!parsed.isSuccessful() || parsed.getResult().isEmpty()) {
+            return null;
+        }
+
+        List<TypeSpan> types = new ArrayList<>();
+        for (TypeDeclaration<?> type : parsed.getResult().get().getTypes()) {
+            if (type.getBegin().isEmpty() || type.getEnd().isEmpty()) {
+                return null;
+            }
+            TypeSpan span = new TypeSpan(type.getNameAsString(), type.getBegin().get().line, type.getEnd().get().line);
+            if (!types.isEmpty() && types.getLast().end >= span.begin) {
+                return null;
+            }
+            types.add(span);
+        }
+        return types;
+    }
+
+    /**
+     * Collects the non-blank lines that are not part of any top-level type (package, imports, comments).
+     */
+    private static List<String> outsideLines(List<String> codes, List<TypeSpan> types) {
+        List<String> lines = new ArrayList<>();
+        int typeIndex = 0;
+        for (int line = 1; line <= codes.size(); line++) {
+            while (typeIndex < types.size() && types.get(typeIndex).end < line) {
+                typeIndex++;
+            }
+            boolean insideType = typeIndex < types.size() && types.get(typeIndex).begin <= line;
+            String code = codes.get(line - 1);
+            if (!insideType && code != null && !code.isBlank()) {
+                lines.add(code);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Finds which of the given top-level types a class belongs to.
+     *
+     * @param className the binary name of a class (e.g., "Shop" or "Shop$1")
+     * @param types the names of the top-level types
+     * @return the name of the top-level type, or {@code null} if the class belongs to none of them
+     */
+    private static String topLevelTypeOf(String className, Set<String> types) {
+        int separator = className.indexOf('$');
+        String type = separator < 0 ? className : className.substring(0, separator);
+        return types.contains(type) ? type : null;
+    }
+
+    /**
+     * Describes the API of the given types, see {@link ApiFingerprint}: every class that can
+     * be referenced by name (top-level and member classes).
+     */
+    private static Map<String, String> apiOf(Map<String, byte[]> classes, Set<String> types) {
+        Map<String, String> api = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> compiledClass : classes.entrySet()) {
+            String name = compiledClass.getKey();
+            if (topLevelTypeOf(name, types) == null || isLocalOrAnonymous(name)) {
+                continue;
+            }
+            api.put(name, ApiFingerprint.of(compiledClass.getValue()));
+        }
+        return api;
+    }
+
+    private static boolean isLocalOrAnonymous(String className) {
+        for (String segment : className.split("\\$")) {
+            if (!segment.isEmpty() && Character.isDigit(segment.charAt(0))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shifts every line number of a class by the given offset.
+     */
+    private static byte[] shiftLines(byte[] classBytes, int offset) {
+        if (offset == 0) {
+            return classBytes;
+        }
+
+        ClassReader cr = new ClassReader(classBytes);
+        ClassWriter cw = new ClassWriter(cr, 0);
+        cr.accept(new ClassVisitor(Opcodes.ASM9, cw) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc,
+                                             String signature, String[] exceptions) {
+                MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+                return new MethodVisitor(Opcodes.ASM9, mv) {
+                    @Override
+                    public void visitLineNumber(int line, Label start) {
+                        super.visitLineNumber(line + offset, start);
+                    }
+                };
+            }
+        }, 0);
+        return cw.toByteArray();
+    }
+
+    private static synchronized void record(boolean incremental) {
+        if (incremental) {
+            incrementalCount++;
+        } else {
+            fallbackCount++;
+        }
+    }
+
+    /**
+     * Getter for the number of sources compiled incrementally so far.
+     * @return the number of incremental compilations
+     */
+    public static synchronized long getIncrementalCount() {
+        return incrementalCount;
+    }
+
+    /**
+     * Gets a summary of the incremental compilations done so far.
+     * @return the number of incremental compilations, of fallbacks and of reused classes
+     */
+    public static synchronized String getSummary() {
+        return "IncrementalCompiler incremental=" + incrementalCount + ", fallbacks=" + fallbackCount
+                + ", reused_classes=" + reusedClassCount;
+    }
+
+    private static class TypeSpan {
+        private final String name;
+        private final int begin;
+        private final int end;
+
+        private TypeSpan(String name, int begin, int end) {
+            this.name = name;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        private List<String> lines(List<String> codes) {
+            return codes.subList(begin - 1, end);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.group10.utils.compiler;
+
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link javax.tools.JavaFileManager} that remembers every package lookup done by
+ * the compiler, so the JDK and the classpath are only indexed once. <br>
+ *
+ * Only the packages listed in {@code visiblePackages} are exposed from the classpath,
+ * which keeps the compiler from scanning the whole (shaded) ProgRepair JAR when the
+ * programs under repair only need JUnit. <br>
+ *
+ * Closing this file manager only flushes it: the underlying standard file manager
+ * stays open, with its archives and lookups, for the next compilation task.
+ */
+public class IndexedFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+    private final Set<String> visiblePackages;
+    private final Map<ListKey, List<JavaFileObject>> lookups = new HashMap<>();
+
+    /**
+     * Constructs an indexed file manager on top of the given standard file manager.
+     *
+     * @param fileManager the file manager used to resolve the JDK and classpath
+     * @param visiblePackages the package prefixes visible on the classpath,
+     *                        or an empty {@link Set} to expose the whole classpath
+     */
+    public IndexedFileManager(StandardJavaFileManager fileManager, Set<String> visiblePackages) {
+        super(fileManager);
+        this.visiblePackages = visiblePackages;
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(Location location, String packageName,
+                                         Set<JavaFileObject.Kind> kinds, boolean recurse) throws IOException {
+        if (location == StandardLocation.CLASS_PATH && !isVisible(packageName)) {
+            return List.of();
+        }
+
+        ListKey key = new ListKey(location, packageName, kinds, recurse);
+        List<JavaFileObject> files = lookups.get(key);
+        if (files == null) {
+            files = new ArrayList<>();
+            for (JavaFileObject file : super.list(location, packageName, kinds, recurse)) {
+                files.add(file);
+            }
+            lookups.put(key, files);
+        }
+        return files;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    /**
+     * Gets the number of distinct package lookups cached so far.
+     *
+     * @return the number of cached lookups
+     */
+    public int getCachedLookupCount() {
+        return lookups.size();
+    }
+
+    private boolean isVisible(String packageName) {
+        if (visiblePackages.isEmpty()) {
+            return true;
+        }
+        for (String visiblePackage : visiblePackages) {
+            if (packageName.equals(visiblePackage) || packageName.startsWith(visiblePackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record ListKey(Location location, String packageName,
+                           Set<JavaFileObject.Kind> kinds, boolean recurse) {
+    }
+}
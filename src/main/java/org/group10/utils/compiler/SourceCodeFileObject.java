@@ -0,0 +1,31 @@
+package org.group10.utils.compiler;
+
+import javax.tools.SimpleJavaFileObject;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * A {@link javax.tools.JavaFileObject} that holds a Java source file in memory. <br>
+ *
+ * Used by {@link InMemoryJavaCompiler} so the source code of a program never
+ * has to be written to disk before being compiled.
+ */
+public class SourceCodeFileObject extends SimpleJavaFileObject {
+    private final String code;
+
+    /**
+     * Constructs a source file object for the given top-level class.
+     *
+     * @param className the name of the class (the file is named "{@code className}.java")
+     * @param codes the source code as a list of lines
+     */
+    public SourceCodeFileObject(String className, List<String> codes) {
+        super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+        this.code = String.join("\n", codes);
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return code;
+    }
+}
@@ -0,0 +1,163 @@
+package org.group10.utils.compiler;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Cheap syntactic check done before handing a source to the compiler. <br>
+ *
+ * Crossover splices the source lines of two programs at a random index, so many
+ * offspring end up with unbalanced braces or with a declaration split in half. Those
+ * are rejected here in microseconds instead of going through the compiler:
+ * <ol>
+ *     <li>a token-level balance check of the braces, parentheses and brackets,
+ *     skipping string, character and text block literals and comments</li>
+ *     <li>a parse of the source with JavaParser</li>
+ * </ol>
+ *
+ * Both stages only reject sources that can not be parsed. The parse uses the {@code RAW}
+ * language level, which accepts every construct known to JavaParser and leaves the
+ * validation to the compiler (syntax newer than the JavaParser grammar would be rejected).
+ */
+public class SyntacticPreScreen {
+    private static long checkCount = 0;
+    private static long unbalancedCount = 0;
+    private static long unparsableCount = 0;
+
+    /**
+     * Checks whether the given source is syntactically valid.
+     *
+     * @param codes the source code as a list of lines
+     * @return {@code true} if the source may compile, {@code false} if it can not be parsed
+     */
+    public static boolean accepts(List<String> codes) {
+        String source = String.join("\n", codes);
+
+        if (!isBalanced(source)) {
+            record(true, false);
+            return false;
+        }
+
+        ParserConfiguration config = new ParserConfiguration()
+                .setLanguageLevel(ParserConfiguration.LanguageLevel.RAW)
+                .setStoreTokens(false)
+                .setAttributeComments(false);
+        boolean parsable = new JavaParser(config).parse(source).isSuccessful();
+        record(false, !parsable);
+        return parsable;
+    }
+
+    /**
+     * Checks whether every brace, parenthesis and bracket of the source is closed
+     * by the matching one, in the right order.
+     *
+     * @param source the source code
+     * @return {@code true} if the source is balanced, {@code false} otherwise
+     */
+    static boolean isBalanced(String source) {
+        Deque<Character> opened = new ArrayDeque<>();
+        int i = 0;
+        int length = source.length();
+
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                i = source.indexOf('\n', i);
+                if (i < 0) break;
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+                i = source.indexOf("*/", i + 2);
+                if (i < 0) return false;
+                i += 1;
+            } else if (c == '"' && source.startsWith("\"\"\"", i)) {
+                i = source.indexOf("\"\"\"", i + 3);
+                while (i > 0 && isEscaped(source, i)) {
+                    i = source.indexOf("\"\"\"", i + 1);
+                }
+                if (i < 0) return false;
+                i += 2;
+            } else if (c == '"' || c == '\'') {
+                i = skipLiteral(source, i, c);
+                if (i < 0) return false;
+            } else if (c == '{' || c == '(' || c == '[') {
+                opened.push(c);
+            } else if (c == '}' || c == ')' || c == ']') {
+                if (opened.isEmpty() || opened.pop() != opening(c)) {
+                    return false;
+                }
+            }
+            i++;
+        }
+
+        return opened.isEmpty();
+    }
+
+    /**
+     * Finds the end of a string or character literal.
+     *
+     * @return the index of the closing quote, or {@code -1} if the literal is not closed on its line
+     */
+    private static int skipLiteral(String source, int start, char quote) {
+        for (int i = start + 1; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i;
+            } else if (c == '\n') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isEscaped(String source, int index) {
+        int backslashes = 0;
+        for (int i = index - 1; i >= 0 && source.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    private static char opening(char closing) {
+        return switch (closing) {
+            case '}' -> '{';
+            case ')' -> '(';
+            default -> '[';
+        };
+    }
+
+    private static synchronized void record(boolean unbalanced, boolean unparsable) {
+        checkCount++;
+        if (unbalanced) unbalancedCount++;
+        if (unparsable) unparsableCount++;
+    }
+
+    /**
+     * Getter for the number of sources checked so far.
+     * @return the number of checked sources
+     */
+    public static synchronized long getCheckCount() {
+        return checkCount;
+    }
+
+    /**
+     * Getter for the number of sources rejected so far, which never reached the compiler.
+     * @return the number of rejected sources
+     */
+    public static synchronized long getRejectedCount() {
+        return unbalancedCount + unparsableCount;
+    }
+
+    /**
+     * Gets a summary of the checks done so far.
+     * @return the number of checked sources and of sources rejected by each stage
+     */
+    public static synchronized String getSummary() {
+        return "SyntacticPreScreen checks=" + checkCount + ", rejected_unbalanced=" + unbalancedCount
+                + ", rejected_unparsable=" + unparsableCount;
+    }
+}
@@ -1,44 +1,135 @@
 package org.group10.utils.instrument;
 
 import org.objectweb.asm.*;
+import org.objectweb.asm.commons.LocalVariablesSorter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
 
 /**
  * Utility class for instrumenting Java bytecode to track code coverage. <br>
  *
  * This class uses the ASM library to modify the bytecode of a given class
- * such that every line number in the class triggers a call to
- * {@link CoverageTracker#hit(int)} when executed.
+ * such that every line number in the class sets its probe when executed: every method
+ * gets the probe array of the class from {@link CoverageTracker#probes(String)} when it
+ * starts, keeps it in a local variable, and stores {@code true} at the index of each
+ * line it executes, like the probes of JaCoCo. <br>
+ *
+ * Optionally, a call to {@link CoverageTracker#tick()} is also injected at the start of
+ * every method and before every backward jump (the end of every loop iteration), so a
+ * test looping forever is stopped once it exceeds its budget. <br>
+ *
+ * The instrumented bytecode is remembered for as long as the original bytecode
+ * is in use, so the classes shared between a program and the programs derived
+ * from it (see {@link org.group10.utils.compiler.IncrementalCompiler}) are only
+ * instrumented once.
  */
 public class CoverageInstrumenter {
+    // Keyed by identity, as arrays do not override equals and hashCode
+    private static final Map<byte[], byte[]> instrumentedClasses = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Map<byte[], byte[]> tickingClasses = Collections.synchronizedMap(new WeakHashMap<>());
+
      /**
      * Instruments the given class byte array to add coverage tracking.
      * <p>
-     * For every line number in the class, this method injects a call to
-     * {@link CoverageTracker#hit(int)}, allowing coverage tools to record
-     * which lines have been executed.
+     * For every line number in the class, this method injects a store to the
+     * probe array of the class, see {@link CoverageTracker#probes(String)}, allowing
+     * coverage tools to record which lines have been executed.
      * </p>
      *
      * @param originalClass the original class as a byte array
      * @return a new byte array representing the instrumented class
      */
     public static byte[] instrument(byte[] originalClass) {
+        return instrument(originalClass, false);
+    }
+
+    /**
+     * Instruments the given class byte array to add coverage tracking, and optionally
+     * the ticks counted against the budget of the tests, see {@link CoverageTracker#tick()}.
+     *
+     * @param originalClass the original class as a byte array
+     * @param countTicks {@code true} to also count the method calls and loop iterations
+     * @return a new byte array representing the instrumented class
+     */
+    public static byte[] instrument(byte[] originalClass, boolean countTicks) {
+        Map<byte[], byte[]> memo = countTicks ? tickingClasses : instrumentedClasses;
+        byte[] instrumented = memo.get(originalClass);
+        if (instrumented == null) {
+            instrumented = doInstrument(originalClass, countTicks);
+            memo.put(originalClass, instrumented);
+        }
+        return instrumented;
+    }
+
+    private static byte[] doInstrument(byte[] originalClass, boolean countTicks) {
         ClassReader cr = new ClassReader(originalClass);
         ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
 
+        // Every line of the class gets a probe, in line order
+        Set<Integer> lines = collectLines(cr);
+        int[] probeLines = lines.stream().mapToInt(Integer::intValue).toArray();
+        Map<Integer, Integer> probeOfLine = new HashMap<>();
+        for (int probe = 0; probe < probeLines.length; probe++) {
+            probeOfLine.put(probeLines[probe], probe);
+        }
+        String probeTable = CoverageTracker.encodeProbeTable(probeLines);
+
         ClassVisitor cv = new ClassVisitor(Opcodes.ASM9, cw) {
             @Override
             public MethodVisitor visitMethod(int access, String name, String desc,
                                              String signature, String[] exceptions) {
-                MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
-                return new MethodVisitor(Opcodes.ASM9, mv) {
+                MethodVisitor writer = super.visitMethod(access, name, desc, signature, exceptions);
+                // The instructions added here use the locals of the instrumented method, so they
+                // go straight to the writer instead of being remapped by the sorter
+                return new LocalVariablesSorter(Opcodes.ASM9, access, desc, writer) {
+                    private final Set<Label> visitedLabels = new HashSet<>();
+                    private int probes = -1;
+
+                    @Override
+                    public void visitCode() {
+                        super.visitCode();
+                        if (countTicks) {
+                            tick(writer);
+                        }
+                        if (!probeOfLine.isEmpty()) {
+                            probes = newLocal(Type.getType(boolean[].class));
+                            writer.visitLdcInsn(probeTable);
+                            writer.visitMethodInsn(Opcodes.INVOKESTATIC,
+                                    "org/group10/utils/instrument/CoverageTracker",
+                                    "probes",
+                                    "(Ljava/lang/String;)[Z",
+                                    false);
+                            writer.visitVarInsn(Opcodes.ASTORE, probes);
+                        }
+                    }
+
+                    @Override
+                    public void visitLabel(Label label) {
+                        visitedLabels.add(label);
+                        super.visitLabel(label);
+                    }
+
+                    @Override
+                    public void visitJumpInsn(int opcode, Label label) {
+                        // A jump to a label already visited goes backward: the end of a loop iteration
+                        if (countTicks && visitedLabels.contains(label)) {
+                            tick(writer);
+                        }
+                        super.visitJumpInsn(opcode, label);
+                    }
+
                     @Override
                     public void visitLineNumber(int line, Label start) {
-                        mv.visitLdcInsn(line);
-                        mv.visitMethodInsn(Opcodes.INVOKESTATIC,
-                                "org/group10/utils/instrument/CoverageTracker",
-                                "hit",
-                                "(I)V",
-                                false);
+                        writer.visitVarInsn(Opcodes.ALOAD, probes);
+                        writer.visitLdcInsn(probeOfLine.get(line));
+                        writer.visitInsn(Opcodes.ICONST_1);
+                        writer.visitInsn(Opcodes.BASTORE);
                         super.visitLineNumber(line, start);
                     }
                 };
@@ -48,4 +139,29 @@ public class CoverageInstrumenter {
         cr.accept(cv, ClassReader.EXPAND_FRAMES);
         return cw.toByteArray();
     }
+
+    private static Set<Integer> collectLines(ClassReader cr) {
+        Set<Integer> lines = new TreeSet<>();
+        cr.accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc,
+                                             String signature, String[] exceptions) {
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public void visitLineNumber(int line, Label start) {
+                        lines.add(line);
+                    }
+                };
+            }
+        }, ClassReader.SKIP_FRAMES);
+        return lines;
+    }
+
+    private static void tick(MethodVisitor mv) {
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC,
+                "org/group10/utils/instrument/CoverageTracker",
+                "tick",
+                "()V",
+                false);
+    }
 }
@@ -1,45 +1,338 @@
 package org.group10.utils.instrument;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
 
 /**
  * Tracks execution of lines in instrumented classes for code coverage purposes. <br>
  *
- * This class is used in conjunction with {@link CoverageInstrumenter}. Each time
- * a line in an instrumented class is executed, {@link #hit(int)} is called with
- * the line number, recording that it was executed.
+ * This class is used in conjunction with {@link CoverageInstrumenter}. Every line of an
+ * instrumented class has a probe, an index in the probe array of the class: every method
+ * of the class gets the array from {@link #probes(String)} when it starts, then sets the
+ * probe of each line it executes, without any call nor boxing. The arrays are harvested
+ * into the executed lines by {@link #getExecutedLines()}, and replaced by {@link #reset()}. <br>
+ *
+ * Every thread records into its own coverage context, so tests running concurrently
+ * on different threads get separate coverage. The threads started by a test inherit
+ * the context of the test. <br>
+ *
+ * If the classes are instrumented to count ticks (see {@link CoverageInstrumenter#instrument(byte[], boolean)}),
+ * the context also counts the method calls and loop iterations of the test, and
+ * {@link #tick()} throws a {@link BudgetExceededError} once the {@link Budget} of the
+ * thread is exceeded, so a mutant looping forever does not stall the search. <br>
+ *
+ * The budget may also limit the bytes a test allocates (see
+ * {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}), so a mutant
+ * allocating without bound is stopped before it drives the JVM into long garbage
+ * collections or an {@link OutOfMemoryError}. Only the allocations of the thread running
+ * the test are accounted, not those of the threads it starts.
  */
 public class CoverageTracker {
     /**
-     * Maps line numbers to the number of times they have been executed.
+     * How many ticks happen between two checks of the clock.
+     */
+    private static final int CLOCK_CHECK_INTERVAL = 1 << 12;
+
+    /**
+     * How many ticks happen between two checks of the allocated bytes. Smaller than the
+     * interval of the clock, as a few iterations allocating large arrays fill the heap quickly.
+     */
+    private static final int ALLOCATION_CHECK_INTERVAL = 1 << 8;
+
+    /**
+     * The source of the bytes allocated by each thread, or {@code null} if the JVM does not
+     * account them.
+     */
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = allocationCounter();
+
+    /**
+     * The lines of the probes of a class (see {@link #probes(String)}), by probe table.
+     */
+    private static final Map<String, int[]> probeLines = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The coverage context of each thread.
      */
-    private static final Map<Integer, Integer> lineHits = new HashMap<>();
+    private static final InheritableThreadLocal<Context> contexts = new InheritableThreadLocal<>() {
+        @Override
+        protected Context initialValue() {
+            return new Context(Budget.UNLIMITED);
+        }
+    };
 
     /**
-     * Records that the specified line has been executed.
+     * The budget of the tests run by each thread.
+     */
+    private static final InheritableThreadLocal<Budget> budgets = new InheritableThreadLocal<>() {
+        @Override
+        protected Budget initialValue() {
+            return Budget.UNLIMITED;
+        }
+    };
+
+    /**
+     * Gets the probe array of a class in the coverage context of the current thread. <br>
+     *
+     * The probe table of a class lists the lines of its probes, comma separated, the probe
+     * of a line being its index in the table. The instrumented classes pass their table as
+     * a constant, so the same table is the same (interned) {@link String} instance on every
+     * call, and the array of the class last used by the thread is found with a single comparison.
+     * The classes with the same table share their array, as their probes stand for the same lines.
      *
-     * @param line the line number that was executed
+     * @param probeTable the probe table of the class, see {@link #encodeProbeTable(int[])}
+     * @return the probe array of the class, one flag per line set once the line is executed
      */
-    public static void hit(int line) {
-        lineHits.put(line, lineHits.getOrDefault(line, 0) + 1);
+    public static boolean[] probes(String probeTable) {
+        Context context = contexts.get();
+        Probes last = context.lastProbes;
+        if (last != null && last.probeTable == probeTable) {
+            return last.hits;
+        }
+        return context.probesOf(probeTable);
     }
 
     /**
-     * Resets all recorded line execution data.
+     * Encodes the probe table of a class, see {@link #probes(String)}.
+     *
+     * @param lines the line of every probe, by probe index
+     * @return the probe table
+     */
+    public static String encodeProbeTable(int[] lines) {
+        StringBuilder table = new StringBuilder();
+        for (int line : lines) {
+            if (!table.isEmpty()) {
+                table.append(',');
+            }
+            table.append(line);
+        }
+        return table.toString();
+    }
+
+    /**
+     * Records a method call or a loop iteration.
+     *
+     * @throws BudgetExceededError if the test exceeded the tick budget or the timeout
+     *                             of the thread, see {@link #setBudget(Budget)}
+     */
+    public static void tick() {
+        Context context = contexts.get();
+        long ticks = ++context.ticks;
+        if (ticks > context.tickLimit
+                || (ticks % ALLOCATION_CHECK_INTERVAL == 0 && context.exceedsBudget(ticks))) {
+            context.timedOut = true;
+            throw new BudgetExceededError("Test exceeded its budget after " + ticks + " ticks");
+        }
+    }
+
+    /**
+     * Resets all recorded line execution data of the current thread. <br>
+     *
+     * The current thread gets a new coverage context, so it no longer shares the one it
+     * may have inherited from the thread that started it. The ticks and the clock of
+     * the budget of the thread start again from zero.
      */
     public static void reset() {
-        lineHits.clear();
+        contexts.set(new Context(budgets.get()));
     }
 
     /**
-     * Returns a list of line numbers that have been executed at least once.
+     * Returns a list of line numbers that have been executed at least once by the current thread.
      *
      * @return a list of executed line numbers
      */
     public static List<Integer> getExecutedLines() {
-        return new ArrayList<>(lineHits.keySet());
+        TreeSet<Integer> executedLines = new TreeSet<>();
+        for (Probes probes : contexts.get().getAllProbes()) {
+            int[] lines = decodeProbeTable(probes.probeTable);
+            for (int i = 0; i < lines.length; i++) {
+                if (probes.hits[i]) {
+                    executedLines.add(lines[i]);
+                }
+            }
+        }
+        return new ArrayList<>(executedLines);
+    }
+
+    /**
+     * Gets the number of method calls and loop iterations recorded by the current thread since the last reset.
+     *
+     * @return the number of ticks
+     */
+    public static long getTicks() {
+        return contexts.get().ticks;
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread since the last reset.
+     *
+     * @return the number of allocated bytes, 0 if the JVM does not account them
+     */
+    public static long getAllocatedBytes() {
+        return Math.max(0, currentAllocatedBytes() - contexts.get().allocationStart);
+    }
+
+    /**
+     * Checks whether the current thread exceeded its budget since the last reset.
+     *
+     * @return {@code true} if a {@link BudgetExceededError} was thrown
+     */
+    public static boolean isTimedOut() {
+        return contexts.get().timedOut;
+    }
+
+    /**
+     * Checks whether the current thread exceeded the wall-clock timeout of its budget since
+     * the last reset (rather than its ticks or its allocated bytes).
+     *
+     * @return {@code true} if a {@link BudgetExceededError} was thrown for the timeout
+     */
+    public static boolean isClockTimedOut() {
+        return contexts.get().clockTimedOut;
+    }
+
+    /**
+     * Sets the budget of every test run by the current thread (and the threads it starts)
+     * after the next reset.
+     *
+     * @param budget the {@link Budget} of every test
+     */
+    public static void setBudget(Budget budget) {
+        budgets.set(budget);
+    }
+
+    /**
+     * Getter for the budget of the tests run by the current thread.
+     * @return the {@link Budget} of every test
+     */
+    public static Budget getBudget() {
+        return budgets.get();
+    }
+
+    /**
+     * The budget of a test.
+     *
+     * @param ticks the maximum number of method calls and loop iterations, non-positive for no limit
+     * @param timeoutMillis the maximum wall-clock time of the test in milliseconds, checked
+     *                      while ticking, non-positive for no limit
+     * @param allocatedBytes the maximum number of bytes allocated by the test, checked while
+     *                       ticking, non-positive for no limit
+     */
+    public record Budget(long ticks, long timeoutMillis, long allocatedBytes) {
+        /**
+         * No limit at all.
+         */
+        public static final Budget UNLIMITED = new Budget(0, 0, 0);
+
+        /**
+         * Constructs a budget without limit on the allocated bytes.
+         *
+         * @param ticks the maximum number of method calls and loop iterations, non-positive for no limit
+         * @param timeoutMillis the maximum wall-clock time of the test in milliseconds, non-positive for no limit
+         */
+        public Budget(long ticks, long timeoutMillis) {
+            this(ticks, timeoutMillis, 0);
+        }
+    }
+
+    /**
+     * Thrown by {@link #tick()} when a test exceeded its budget. It is an {@link Error},
+     * so the usual {@code catch (Exception e)} of the tested code does not swallow it.
+     */
+    public static class BudgetExceededError extends Error {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs a {@link BudgetExceededError}.
+         * @param message the detail message
+         */
+        public BudgetExceededError(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The probe array of a class, with its probe table.
+     */
+    private record Probes(String probeTable, boolean[] hits) {
+    }
+
+    private static class Context {
+        // The arrays of the context by probe table
+        private final Map<String, Probes> probes = new HashMap<>();
+        private volatile Probes lastProbes;
+        private final long tickLimit;
+        private final long deadline;
+        private final long allocationLimit;
+        private final long allocationStart;
+        private long ticks = 0;
+        private volatile boolean timedOut = false;
+        private volatile boolean clockTimedOut = false;
+
+        private Context(Budget budget) {
+            tickLimit = budget.ticks() > 0 ? budget.ticks() : Long.MAX_VALUE;
+            // Far enough in the future to never be reached, and without overflowing
+            deadline = System.nanoTime() + (budget.timeoutMillis() > 0
+                    ? budget.timeoutMillis() * 1_000_000L : Long.MAX_VALUE / 2);
+            allocationLimit = budget.allocatedBytes() > 0 && ALLOCATION_COUNTER != null
+                    ? budget.allocatedBytes() : Long.MAX_VALUE;
+            allocationStart = currentAllocatedBytes();
+        }
+
+        private synchronized boolean[] probesOf(String probeTable) {
+            Probes tableProbes = probes.get(probeTable);
+            if (tableProbes == null) {
+                tableProbes = new Probes(probeTable, new boolean[decodeProbeTable(probeTable).length]);
+                probes.put(probeTable, tableProbes);
+            }
+            lastProbes = tableProbes;
+            return tableProbes.hits;
+        }
+
+        private synchronized List<Probes> getAllProbes() {
+            return List.copyOf(probes.values());
+        }
+
+        private boolean exceedsBudget(long ticks) {
+            if (allocationLimit != Long.MAX_VALUE && currentAllocatedBytes() - allocationStart > allocationLimit) {
+                return true;
+            }
+            if (ticks % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+                clockTimedOut = true;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static int[] decodeProbeTable(String probeTable) {
+        int[] lines = probeLines.get(probeTable);
+        if (lines == null) {
+            lines = probeTable.isEmpty() ? new int[0]
+                    : Arrays.stream(probeTable.split(",")).mapToInt(Integer::parseInt).toArray();
+            probeLines.put(probeTable, lines);
+        }
+        return lines;
+    }
+
+    private static long currentAllocatedBytes() {
+        return ALLOCATION_COUNTER != null ? ALLOCATION_COUNTER.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadBean
+                && threadBean.isThreadAllocatedMemorySupported()) {
+            if (!threadBean.isThreadAllocatedMemoryEnabled()) {
+                threadBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threadBean;
+        }
+        return null;
     }
 }
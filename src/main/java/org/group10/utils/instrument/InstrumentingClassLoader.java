@@ -1,16 +1,41 @@
 package org.group10.utils.instrument;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * A custom {@link ClassLoader} that allows loading classes from in-memory byte arrays.
+ * A custom {@link ClassLoader} that allows loading classes from in-memory byte arrays. <br>
+ *
+ * The added classes are loaded child-first: they are defined by this loader without
+ * asking the parent loader about them first. Every other class is loaded by the parent,
+ * usually the {@link SharedClassLoader}. The loader is parallel-capable, so the tests
+ * of a program running concurrently do not wait for each other while loading classes.
  */
 public class InstrumentingClassLoader extends ClassLoader {
+    static {
+        registerAsParallelCapable();
+    }
+
     /**
      * Stores class names mapped to their bytecode.
      */
-    private final Map<String, byte[]> classes = new HashMap<>();
+    private final Map<String, byte[]> classes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an {@link InstrumentingClassLoader} with the system class loader as parent.
+     */
+    public InstrumentingClassLoader() {
+        super(getSystemClassLoader());
+    }
+
+    /**
+     * Constructs an {@link InstrumentingClassLoader}.
+     *
+     * @param parent the loader of the classes that are not added to this loader
+     */
+    public InstrumentingClassLoader(ClassLoader parent) {
+        super(parent);
+    }
 
     /**
      * Adds a class to this loader from its byte array representation. <br>
@@ -24,6 +49,32 @@ public class InstrumentingClassLoader extends ClassLoader {
         classes.put(className, bytes);
     }
 
+    /**
+     * Loads the class with the specified name, defining it first if it was added via
+     * {@link #addClass(String, byte[])}, and asking the parent loader otherwise.
+     *
+     * @param name the fully qualified name of the class
+     * @param resolve {@code true} to resolve the class
+     * @return the resulting {@link Class} object
+     * @throws ClassNotFoundException if the class could not be found
+     */
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!classes.containsKey(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                loaded = findClass(name);
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+
     /**
      * Finds and loads the class with the specified name.
      * <p>
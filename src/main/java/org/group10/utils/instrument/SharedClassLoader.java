@@ -0,0 +1,170 @@
+package org.group10.utils.instrument;
+
+import org.group10.utils.compiler.ApiFingerprint;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The long-lived parent of every {@link InstrumentingClassLoader}. <br>
+ *
+ * A program gets its own class loader for its classes and its test classes, see
+ * {@link InstrumentingClassLoader}. Everything else (JUnit, the JDK, the test classes that
+ * do not depend on the program) is loaded once by this loader and shared by all the
+ * programs, so those classes are only defined, verified and compiled by the JIT once,
+ * and the lookups of the library classes are answered from a cache. <br>
+ *
+ * The test classes that refer to a class of the program (directly, or through another
+ * test class) can not be shared, as they must link against the classes of each program,
+ * and neither can the test classes with static state, which every program gets fresh.
+ * The loader is parallel-capable, so the programs evaluated concurrently do not wait
+ * for each other while loading classes.
+ */
+public class SharedClassLoader extends ClassLoader {
+    static {
+        registerAsParallelCapable();
+    }
+
+    private static final SharedClassLoader INSTANCE = new SharedClassLoader(SharedClassLoader.class.getClassLoader());
+
+    /**
+     * The dependencies of some bytecode, memoized by the identity of the bytecode.
+     */
+    private static final Map<byte[], Dependencies> dependencies = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<String, byte[]> sharedClasses = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>> loadedClasses = new ConcurrentHashMap<>();
+    private final AtomicLong sharedLoadCount = new AtomicLong();
+    private final AtomicLong cachedLookupCount = new AtomicLong();
+
+    private SharedClassLoader(ClassLoader parent) {
+        super(parent);
+    }
+
+    /**
+     * Getter for the loader shared by all the programs.
+     * @return the {@link SharedClassLoader}
+     */
+    public static SharedClassLoader getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Shares the test classes that do not depend on any class of the program, nor have
+     * static state. <br>
+     *
+     * A class is only shared if no other bytecode was shared under its name before.
+     *
+     * @param testClasses the test classes of a program, by binary name
+     * @param programClasses the binary names of the classes of the program
+     * @return the names of the test classes loaded by this loader, the other ones have to
+     *         be loaded by the loader of the program
+     */
+    public Set<String> share(Map<String, byte[]> testClasses, Set<String> programClasses) {
+        // The test classes depending on the program, directly or through another test class
+        Set<String> dependent = new HashSet<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<String, byte[]> testClass : testClasses.entrySet()) {
+                if (dependent.contains(testClass.getKey())) {
+                    continue;
+                }
+                Dependencies classDependencies = getDependencies(testClass.getValue());
+                if (classDependencies.hasStaticState() || classDependencies.referencedClasses().stream()
+                        .anyMatch(name -> programClasses.contains(name) || dependent.contains(name))) {
+                    dependent.add(testClass.getKey());
+                    changed = true;
+                }
+            }
+        }
+
+        Set<String> shared = new HashSet<>();
+        for (Map.Entry<String, byte[]> testClass : testClasses.entrySet()) {
+            if (dependent.contains(testClass.getKey())) {
+                continue;
+            }
+            byte[] sharedBytes = sharedClasses.putIfAbsent(testClass.getKey(), testClass.getValue());
+            if (sharedBytes == null || Arrays.equals(sharedBytes, testClass.getValue())) {
+                shared.add(testClass.getKey());
+            }
+        }
+        return shared;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        Class<?> loaded = loadedClasses.get(name);
+        if (loaded != null) {
+            cachedLookupCount.incrementAndGet();
+            return loaded;
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+            loaded = findLoadedClass(name);
+            if (loaded == null) {
+                byte[] bytes = sharedClasses.get(name);
+                if (bytes != null) {
+                    loaded = defineClass(name, bytes, 0, bytes.length);
+                } else {
+                    loaded = getParent().loadClass(name);
+                }
+                sharedLoadCount.incrementAndGet();
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            loadedClasses.put(name, loaded);
+            return loaded;
+        }
+    }
+
+    /**
+     * Gets a summary of the classes loaded so far.
+     *
+     * @return the number of classes loaded once for all the programs, of shared test classes,
+     *         and of lookups answered from the cache
+     */
+    public static String getSummary() {
+        return "loaded=" + INSTANCE.sharedLoadCount.get() + ", shared_test_classes=" + INSTANCE.sharedClasses.size()
+                + ", cached_lookups=" + INSTANCE.cachedLookupCount.get();
+    }
+
+    private static Dependencies getDependencies(byte[] classBytes) {
+        Dependencies classDependencies = dependencies.get(classBytes);
+        if (classDependencies == null) {
+            boolean[] hasStaticState = {false};
+            new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
+                @Override
+                public FieldVisitor visitField(int access, String name, String descriptor,
+                                               String signature, Object value) {
+                    // Only the constants (static final fields with a constant value) are not state
+                    if ((access & Opcodes.ACC_STATIC) != 0 && ((access & Opcodes.ACC_FINAL) == 0 || value == null)) {
+                        hasStaticState[0] = true;
+                    }
+                    return null;
+                }
+            }, ClassReader.SKIP_CODE);
+            classDependencies = new Dependencies(ApiFingerprint.referencedClasses(List.of(classBytes)), hasStaticState[0]);
+            dependencies.put(classBytes, classDependencies);
+        }
+        return classDependencies;
+    }
+
+    /**
+     * The classes referenced by a class, and whether it has static state.
+     */
+    private record Dependencies(Set<String> referencedClasses, boolean hasStaticState) {
+    }
+}
@@ -0,0 +1,113 @@
+package org.group10.utils.instrument;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Utility class detecting whether the tests of a program may share state through static fields. <br>
+ *
+ * Tests can only run concurrently if they do not observe each other, and the state
+ * visible from every test is the static state of the program and of the test classes.
+ * The bytecode is scanned (outside of the static initializers) for:
+ * <ul>
+ *     <li>writes to a static field of the classes</li>
+ *     <li>reads of a static field of the classes holding an object, as the object may be
+ *     mutable (e.g., a {@code static final List}), unless it is a {@link String} or an enum constant</li>
+ * </ul>
+ * Static fields of the JDK and of the libraries are not considered.
+ */
+public class SharedStateDetector {
+    private static long checkCount = 0;
+    private static long sharedCount = 0;
+
+    /**
+     * Checks whether the given classes may share state between tests through static fields.
+     *
+     * @param classBytes the bytecode of the program and test classes
+     * @return {@code true} if the classes may share static state, {@code false} otherwise
+     */
+    public static boolean sharesStaticState(Collection<byte[]> classBytes) {
+        Set<String> classNames = new HashSet<>();
+        Set<String> immutableFields = new HashSet<>();
+        for (byte[] bytes : classBytes) {
+            ClassReader cr = new ClassReader(bytes);
+            classNames.add(cr.getClassName());
+            cr.accept(new ClassVisitor(Opcodes.ASM9) {
+                @Override
+                public FieldVisitor visitField(int access, String name, String descriptor,
+                                               String signature, Object value) {
+                    boolean constant = (access & Opcodes.ACC_FINAL) != 0
+                            && (isPrimitiveOrString(descriptor) || (access & Opcodes.ACC_ENUM) != 0);
+                    // Synthetic fields are the compiler's (e.g., $assertionsDisabled, switch maps)
+                    if (constant || (access & Opcodes.ACC_SYNTHETIC) != 0) {
+                        immutableFields.add(cr.getClassName() + "." + name);
+                    }
+                    return null;
+                }
+            }, ClassReader.SKIP_CODE);
+        }
+
+        boolean shared = false;
+        for (byte[] bytes : classBytes) {
+            if (accessesStaticState(bytes, classNames, immutableFields)) {
+                shared = true;
+                break;
+            }
+        }
+        record(shared);
+        return shared;
+    }
+
+    /**
+     * Gets a summary of the checks done so far.
+     * @return the number of checks, and of checks that found shared static state
+     */
+    public static synchronized String getSummary() {
+        return "SharedStateDetector checks=" + checkCount + ", shared=" + sharedCount;
+    }
+
+    private static boolean accessesStaticState(byte[] bytes, Set<String> classNames, Set<String> immutableFields) {
+        boolean[] found = {false};
+        new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor,
+                                             String signature, String[] exceptions) {
+                if (name.equals("<clinit>")) {
+                    return null;
+                }
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public void visitFieldInsn(int opcode, String owner, String fieldName, String fieldDescriptor) {
+                        if (!classNames.contains(owner)) {
+                            return;
+                        }
+                        if (opcode == Opcodes.PUTSTATIC) {
+                            found[0] = true;
+                        } else if (opcode == Opcodes.GETSTATIC && !immutableFields.contains(owner + "." + fieldName)) {
+                            found[0] = true;
+                        }
+                    }
+                };
+            }
+        }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return found[0];
+    }
+
+    private static boolean isPrimitiveOrString(String descriptor) {
+        return descriptor.length() == 1 || descriptor.equals("Ljava/lang/String;");
+    }
+
+    private static synchronized void record(boolean shared) {
+        checkCount++;
+        if (shared) {
+            sharedCount++;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package fitnessfunction;
+
+import org.group10.fitness.SampledFitnessFunction;
+import org.group10.program.Program;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SampledFitnessFunctionTest {
+    String sourceCode = """
+            public class IntCalculator {
+                public int mul(int a, int b) {
+                    return a * b;
+                }
+
+                public int div(int a, int b) {
+                    if (b == 0) {
+                        return 0;
+                    }
+
+                    return a / b;
+                }
+
+                public int add(int a, int b) {
+                    return a + b;
+                }
+
+                public int subtract(int a, int b) {
+                    return SUBTRACT;
+                }
+            }
+            """;
+
+    private Program setupProgram(SampledFitnessFunction ff) throws Exception {
+        Program program = new Program("./benchmark/IntCalculator_buggy/", "IntCalculator", null, null, null, ff);
+        // The original program is evaluated on all the tests
+        assertEquals(3.0, program.getFitness());
+        return program;
+    }
+
+    private Program withSubtract(Program program, String subtract) {
+        String code = sourceCode.replace("SUBTRACT", subtract);
+        return new Program(program.getClassName(), Arrays.asList(code.split("\\R")), program.getTestSuite(),
+                null, null, null, program.getFitnessFunction());
+    }
+
+    @Test
+    void testSampleShouldHoldTheNegativeTests() throws Exception {
+        SampledFitnessFunction ff = new SampledFitnessFunction(1, 10, 0.1);
+        Program program = setupProgram(ff);
+
+        for (int generation = 0; generation < 5; generation++) {
+            ff.startGeneration(generation);
+            Set<String> sample = ff.getSampledTests();
+            // Both negative tests, and one of the three positive tests
+            assertEquals(3, sample.size());
+            assertTrue(sample.containsAll(program.getNegativeTests()));
+        }
+    }
+
+    @Test
+    void testOnlyPromisingProgramShouldBeValidated() throws Exception {
+        SampledFitnessFunction ff = new SampledFitnessFunction(1, 10, 1);
+        Program program = setupProgram(ff);
+        Program partiallyFixedProgram = withSubtract(program, "a + b");
+        Program fixedProgram = withSubtract(program, "a - b");
+
+        // Only the add test is fixed, so the program fails the sample
+        assertEquals(13.0, partiallyFixedProgram.getFitness());
+        assertFalse(partiallyFixedProgram.isMaxFitness());
+        assertEquals("sampled_evaluations=1, full_validations=0", ff.getSummary());
+
+        assertEquals(23.0, fixedProgram.getFitness());
+        assertTrue(fixedProgram.isMaxFitness());
+        assertEquals("sampled_evaluations=2, full_validations=1", ff.getSummary());
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,6 +41,27 @@ public class WeightedFitnessFunctionTest {
             }
             """;
 
+    // The original negative tests (add and subtract) still fail, and so does every positive test
+    String brokenCode = """
+            public class IntCalculator {
+                public int add(int a, int b) {
+                    return a - b;
+                }
+
+                public int subtract(int a, int b) {
+                    return a + b;
+                }
+
+                public int mul(int a, int b) {
+                    return 0;
+                }
+
+                public int div(int a, int b) {
+                    return 1;
+                }
+            }
+            """;
+
     @BeforeEach
     void setup() throws Exception {
         ff = new WeightedFitnessFunction(1, 10);
@@ -57,4 +79,43 @@ public class WeightedFitnessFunctionTest {
         assertTrue(ff.isAtMaxValue(fixedProgram));
         assertFalse(ff.isAtMaxValue(program));
     }
+
+    @Test
+    void testHopelessProgramShouldSkipTheRemainingTests() throws Exception {
+        program.getTestSuite().setEarlyTermination(ff);
+        ff.calculateFitness(program);
+        Program brokenProgram = new Program(program.getClassName(), Arrays.asList(brokenCode.split("\\R")),
+                program.getTestSuite(), null, null, null, ff);
+        brokenProgram.executeTestSuite();
+
+        assertEquals(Set.of("IntCalculatorTest@testAdd", "IntCalculatorTest@testSubtract"), ff.getPriorityTests());
+        // The negative tests, then the first positive test by name
+        assertEquals(3, brokenProgram.getTestFailedCount());
+        assertTrue(brokenProgram.getNegativeTests().contains("IntCalculatorTest@testDivide"));
+        assertEquals(0, brokenProgram.getTestSuccessfulCount());
+        // The skipped positive tests count as passing, which is still below the original program
+        assertEquals(2, brokenProgram.getSkippedTestCount());
+        assertEquals(2.0, ff.calculateFitness(brokenProgram));
+        assertTrue(ff.calculateFitness(brokenProgram) < ff.calculateFitness(program));
+        assertTrue(program.getTestSuite().getEarlyTerminationSummary().endsWith("skipped_tests=2"));
+        // The outcome of the executed tests only is not cached
+        assertNull(program.getTestSuite().getCache().getTestResults(brokenProgram.getClassName(),
+                brokenProgram.getCodes()));
+    }
+
+    @Test
+    void testHopelessProgramShouldSkipTheRemainingTestsInBatches() throws Exception {
+        program.getTestSuite().setEarlyTermination(ff);
+        program.getTestSuite().setTestWorkers(2);
+        ff.calculateFitness(program);
+        Program brokenProgram = new Program(program.getClassName(), Arrays.asList(brokenCode.split("\\R")),
+                program.getTestSuite(), null, null, null, ff);
+        brokenProgram.executeTestSuite();
+
+        // The negative tests, then a batch of two positive tests, one per thread
+        assertEquals(4, brokenProgram.getTestFailedCount());
+        assertFalse(brokenProgram.getNegativeTests().contains("IntCalculatorTest@testMultiply"));
+        assertEquals(1, brokenProgram.getSkippedTestCount());
+        assertEquals(1.0, ff.calculateFitness(brokenProgram));
+    }
 }
@@ -13,6 +13,7 @@ import org.group10.selection.Selection;
 import org.group10.suspiciouscalculator.OchiaiSuspiciousCalculator;
 import org.group10.suspiciouscalculator.SuspiciousCalculator;
 import org.group10.utils.Randomness;
+import org.group10.utils.compiler.CompileExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -53,6 +54,23 @@ public class ClassicGenProgAlgorithmTest {
 
     }
 
+    @Test
+    void testConcurrentEvaluationShouldFindTheSamePatch() throws Exception {
+        tapSystemOut(() -> {
+            classicGenProgAlgorithm.setCompileExecutor(new CompileExecutor(1));
+            Program sequential = classicGenProgAlgorithm.search(
+                    setUpProgram("./benchmark/IntCalculator_buggy/", "IntCalculator"));
+
+            setUp();
+            classicGenProgAlgorithm.setCompileExecutor(new CompileExecutor(4));
+            Program concurrent = classicGenProgAlgorithm.search(
+                    setUpProgram("./benchmark/IntCalculator_buggy/", "IntCalculator"));
+
+            assertEquals(sequential.getCodes(), concurrent.getCodes());
+            assertEquals(sequential.getFitness(), concurrent.getFitness());
+        });
+    }
+
     @Test
     void testSearchShouldNotHangNorCrash() throws Exception{
         Program program = setUpProgram("./benchmark/Shop_buggy/", "Shop");
@@ -0,0 +1,61 @@
+package testsuite;
+
+import org.group10.testsuite.LauncherSessionPool;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+public class LauncherSessionPoolTest {
+    static class ProbeTests {
+        @Test
+        void testSucceed() {
+        }
+    }
+
+    private final LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+            .selectors(selectClass(ProbeTests.class))
+            .build();
+
+    private int execute(LauncherSessionPool pool) {
+        AtomicInteger succeeded = new AtomicInteger();
+        pool.execute(request, new TestExecutionListener() {
+            @Override
+            public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+                if (testIdentifier.isTest() && testExecutionResult.getStatus() == TestExecutionResult.Status.SUCCESSFUL) {
+                    succeeded.incrementAndGet();
+                }
+            }
+        });
+        return succeeded.get();
+    }
+
+    @Test
+    void testSessionShouldBeReusedPerThread() throws Exception {
+        try (LauncherSessionPool pool = new LauncherSessionPool(true)) {
+            // Every execution only notifies its own listener
+            assertEquals(1, execute(pool));
+            assertEquals(1, execute(pool));
+            assertEquals(1, pool.getOpenedCount());
+
+            Thread other = new Thread(() -> execute(pool));
+            other.start();
+            other.join();
+            assertEquals(2, pool.getOpenedCount());
+            assertTrue(pool.toString().contains("executions=3"));
+        }
+
+        try (LauncherSessionPool pool = new LauncherSessionPool(false)) {
+            execute(pool);
+            execute(pool);
+            assertEquals(2, pool.getOpenedCount());
+        }
+    }
+}
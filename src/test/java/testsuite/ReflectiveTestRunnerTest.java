@@ -0,0 +1,319 @@
+package testsuite;
+
+import org.group10.testsuite.ReflectiveTestRunner;
+import org.group10.testsuite.TestResult;
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.group10.utils.instrument.CoverageInstrumenter;
+import org.group10.utils.instrument.CoverageTracker;
+import org.group10.utils.instrument.InstrumentingClassLoader;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReflectiveTestRunnerTest {
+    String testCode = """
+            import org.junit.jupiter.api.AfterEach;
+            import org.junit.jupiter.api.BeforeEach;
+            import org.junit.jupiter.api.Test;
+            import static org.junit.jupiter.api.Assertions.*;
+
+            class CounterTest {
+                private int count;
+
+                @BeforeEach
+                void setUp() {
+                    count = 1;
+                }
+
+                @AfterEach
+                void tearDown() {
+                    assertTrue(count < 10);
+                }
+
+                @Test
+                void testIncrement() {
+                    count++;
+                    assertEquals(2, count);
+                }
+
+                @Test
+                void testFailing() {
+                    assertEquals(3, count);
+                }
+
+                @Test
+                void testThrows() {
+                    assertThrows(ArithmeticException.class, () -> count = count / 0);
+                }
+
+                @Test
+                void testFailingTearDown() {
+                    count = 10;
+                }
+            }
+            """;
+
+    @Test
+    void testSupportedClassShouldBeRunWithLifecycle() throws Exception {
+        Class<?> testClass = load("CounterTest", testCode);
+        List<Method> testMethods = Arrays.stream(testClass.getDeclaredMethods())
+                .filter(m -> m.isAnnotationPresent(Test.class))
+                .toList();
+
+        assertTrue(ReflectiveTestRunner.supports(testClass));
+        List<TestResult> results = ReflectiveTestRunner.run(testClass, testMethods);
+
+        assertEquals(testMethods.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            String methodName = testMethods.get(i).getName();
+            assertEquals("CounterTest@" + methodName, results.get(i).getTestName());
+            boolean expected = methodName.equals("testIncrement") || methodName.equals("testThrows");
+            assertEquals(expected, results.get(i).isSucceeded(), methodName);
+        }
+    }
+
+    @Test
+    void testParallelRunShouldMatchSequentialRun() throws Exception {
+        String counterCode = """
+                public class Counter {
+                    int add(int a, int b) {
+                        if (a > b) {
+                            return a + b;
+                        }
+                        return b + a;
+                    }
+                }
+                """;
+        String counterTestCode = """
+                import org.junit.jupiter.api.Test;
+                import static org.junit.jupiter.api.Assertions.*;
+
+                class CounterTest {
+                    @Test
+                    void testGreater() { assertEquals(3, new Counter().add(2, 1)); }
+
+                    @Test
+                    void testSmaller() { assertEquals(3, new Counter().add(1, 2)); }
+
+                    @Test
+                    void testWrong() { assertEquals(4, new Counter().add(1, 2)); }
+                }
+                """;
+        Map<String, List<String>> sources = new LinkedHashMap<>();
+        sources.put("Counter", counterCode.lines().toList());
+        sources.put("CounterTest", counterTestCode.lines().toList());
+        Map<String, byte[]> classes = InMemoryJavaCompiler.compile(sources).getClasses();
+        InstrumentingClassLoader loader = new InstrumentingClassLoader();
+        loader.addClass("Counter", CoverageInstrumenter.instrument(classes.get("Counter")));
+        loader.addClass("CounterTest", classes.get("CounterTest"));
+        Class<?> testClass = loader.loadClass("CounterTest");
+        // The declared methods come in no particular order: testGreater, testSmaller, testWrong
+        List<Method> testMethods = Arrays.stream(testClass.getDeclaredMethods())
+                .filter(m -> m.isAnnotationPresent(Test.class))
+                .sorted(Comparator.comparing(Method::getName))
+                .toList();
+
+        List<TestResult> sequential = ReflectiveTestRunner.run(testClass, testMethods);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<TestResult> parallel;
+        try {
+            parallel = ReflectiveTestRunner.run(testClass, testMethods, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getTestName(), parallel.get(i).getTestName());
+            assertEquals(sequential.get(i).isSucceeded(), parallel.get(i).isSucceeded());
+            assertEquals(new HashSet<>(sequential.get(i).getExecutedLines()),
+                    new HashSet<>(parallel.get(i).getExecutedLines()));
+        }
+        assertNotEquals(new HashSet<>(sequential.get(0).getExecutedLines()),
+                new HashSet<>(sequential.get(1).getExecutedLines()));
+    }
+
+    @Test
+    void testEndlessLoopShouldExceedTheBudget() throws Exception {
+        String loopCode = """
+                public class Loop {
+                    int sum(int n) {
+                        int sum = 0;
+                        for (int i = 0; i < n; ) {
+                            sum += i;
+                        }
+                        return sum;
+                    }
+                }
+                """;
+        String loopTestCode = """
+                import org.junit.jupiter.api.Test;
+                import static org.junit.jupiter.api.Assertions.*;
+
+                class LoopTest {
+                    @Test
+                    void testEmpty() { assertEquals(0, new Loop().sum(0)); }
+
+                    @Test
+                    void testEndless() {
+                        try {
+                            new Loop().sum(3);
+                        } catch (Throwable e) {
+                            // The budget can not be swallowed
+                        }
+                    }
+                }
+                """;
+        Map<String, List<String>> sources = new LinkedHashMap<>();
+        sources.put("Loop", loopCode.lines().toList());
+        sources.put("LoopTest", loopTestCode.lines().toList());
+        Map<String, byte[]> classes = InMemoryJavaCompiler.compile(sources).getClasses();
+        InstrumentingClassLoader loader = new InstrumentingClassLoader();
+        loader.addClass("Loop", CoverageInstrumenter.instrument(classes.get("Loop"), true));
+        loader.addClass("LoopTest", classes.get("LoopTest"));
+        Class<?> testClass = loader.loadClass("LoopTest");
+        List<Method> testMethods = List.of(testClass.getDeclaredMethod("testEmpty"),
+                testClass.getDeclaredMethod("testEndless"));
+
+        CoverageTracker.setBudget(new CoverageTracker.Budget(10_000, 0));
+        List<TestResult> results;
+        try {
+            results = ReflectiveTestRunner.run(testClass, testMethods);
+        } finally {
+            CoverageTracker.setBudget(CoverageTracker.Budget.UNLIMITED);
+        }
+
+        assertTrue(results.get(0).isSucceeded());
+        assertFalse(results.get(0).isTimedOut());
+        assertTrue(results.get(0).getTicks() > 0);
+        assertFalse(results.get(1).isSucceeded());
+        assertTrue(results.get(1).isTimedOut());
+        assertTrue(results.get(1).getTicks() > 10_000);
+    }
+
+    @Test
+    void testUnboundedAllocationShouldExceedTheBudget() throws Exception {
+        String stackCode = """
+                import java.util.ArrayList;
+                import java.util.List;
+
+                public class Stack {
+                    private final List<int[]> frames = new ArrayList<>();
+
+                    void pushAll(int n) {
+                        for (int i = 0; i < n || n < 0; i++) {
+                            frames.add(new int[1024]);
+                        }
+                    }
+                }
+                """;
+        String stackTestCode = """
+                import org.junit.jupiter.api.Test;
+
+                class StackTest {
+                    @Test
+                    void testPushFew() { new Stack().pushAll(10); }
+
+                    @Test
+                    void testPushForever() { new Stack().pushAll(-1); }
+                }
+                """;
+        Map<String, List<String>> sources = new LinkedHashMap<>();
+        sources.put("Stack", stackCode.lines().toList());
+        sources.put("StackTest", stackTestCode.lines().toList());
+        Map<String, byte[]> classes = InMemoryJavaCompiler.compile(sources).getClasses();
+        InstrumentingClassLoader loader = new InstrumentingClassLoader();
+        loader.addClass("Stack", CoverageInstrumenter.instrument(classes.get("Stack"), true));
+        loader.addClass("StackTest", classes.get("StackTest"));
+        Class<?> testClass = loader.loadClass("StackTest");
+        List<Method> testMethods = List.of(testClass.getDeclaredMethod("testPushFew"),
+                testClass.getDeclaredMethod("testPushForever"));
+
+        // No limit on the ticks, only on the allocated bytes
+        CoverageTracker.setBudget(new CoverageTracker.Budget(0, 0, 16L << 20));
+        List<TestResult> results;
+        try {
+            results = ReflectiveTestRunner.run(testClass, testMethods);
+        } finally {
+            CoverageTracker.setBudget(CoverageTracker.Budget.UNLIMITED);
+        }
+
+        assertTrue(results.get(0).isSucceeded());
+        assertTrue(results.get(0).getAllocatedBytes() > 10 * 4096);
+        assertFalse(results.get(1).isSucceeded());
+        assertTrue(results.get(1).isTimedOut());
+        assertTrue(results.get(1).getAllocatedBytes() > 16L << 20);
+    }
+
+    @Test
+    void testBlockedTestShouldBeAbandonedAtItsDeadline() throws Exception {
+        String sleeperTestCode = """
+                import org.junit.jupiter.api.Test;
+
+                class SleeperTest {
+                    @Test
+                    void testAwake() {
+                    }
+
+                    @Test
+                    void testAsleep() {
+                        // Never ticks, and ignores the interruption
+                        while (true) {
+                            try {
+                                Thread.sleep(60_000);
+                            } catch (InterruptedException e) {
+                                // Keep sleeping
+                            }
+                        }
+                    }
+                }
+                """;
+        Class<?> testClass = load("SleeperTest", sleeperTestCode);
+        List<Method> testMethods = List.of(testClass.getDeclaredMethod("testAwake"),
+                testClass.getDeclaredMethod("testAsleep"));
+
+        // No limit on the ticks, only on the wall-clock time
+        CoverageTracker.setBudget(new CoverageTracker.Budget(0, 100));
+        List<TestResult> results;
+        long start = System.nanoTime();
+        try {
+            results = ReflectiveTestRunner.run(testClass, testMethods);
+        } finally {
+            CoverageTracker.setBudget(CoverageTracker.Budget.UNLIMITED);
+        }
+
+        assertTrue(System.nanoTime() - start < 30_000_000_000L);
+        assertTrue(results.get(0).isSucceeded());
+        assertFalse(results.get(0).isClockTimedOut());
+        assertFalse(results.get(1).isSucceeded());
+        assertTrue(results.get(1).isTimedOut());
+        assertTrue(results.get(1).isClockTimedOut());
+    }
+
+    @Test
+    void testUnsupportedFeaturesShouldFallBack() throws Exception {
+        String disabled = testCode.replace("@Test\n    void testFailing()",
+                "@Test @org.junit.jupiter.api.Disabled\n    void testFailing()");
+        String withConstructor = testCode.replace("private int count;", "private int count;\n    CounterTest(int count) {}");
+
+        assertFalse(ReflectiveTestRunner.supports(load("CounterTest", disabled)));
+        assertFalse(ReflectiveTestRunner.supports(load("CounterTest", withConstructor)));
+    }
+
+    private Class<?> load(String className, String source) throws Exception {
+        Map<String, byte[]> classes = InMemoryJavaCompiler.compile(Map.of(className, source.lines().toList())).getClasses();
+        InstrumentingClassLoader loader = new InstrumentingClassLoader();
+        classes.forEach(loader::addClass);
+        return loader.loadClass(className);
+    }
+}
@@ -0,0 +1,80 @@
+package testsuite;
+
+import org.group10.testsuite.RegressionTestSelector;
+import org.group10.testsuite.TestResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegressionTestSelectorTest {
+    private final List<String> parentCodes = """
+            public class Counter {
+                int count = 0;
+
+                int add(int a, int b) {
+                    return a - b;
+                }
+
+                int twice(int a) {
+                    return a * 2;
+                }
+            }
+            """.lines().toList();
+
+    // The add test executes line 5, the twice test line 9
+    private final List<TestResult> parentResults = List.of(
+            new TestResult("CounterTest@testAdd", false, List.of(5)),
+            new TestResult("CounterTest@testTwice", true, List.of(9)));
+
+    @Test
+    void testChangedMethodShouldOnlyRunItsTests() {
+        List<String> childCodes = String.join("\n", parentCodes)
+                .replace("return a - b;", "int sum = a + b;\n        return sum;")
+                .lines().toList();
+
+        RegressionTestSelector.Selection selection =
+                RegressionTestSelector.select(parentCodes, parentResults, childCodes);
+
+        assertNotNull(selection);
+        assertEquals(Set.of("CounterTest@testAdd"), selection.testsToRun());
+        // The inherited coverage follows the inserted line
+        assertEquals(List.of(10), selection.inheritedResults().get("CounterTest@testTwice").getExecutedLines());
+
+        List<TestResult> merged = selection.merge(List.of(new TestResult("CounterTest@testAdd", true, List.of(5, 6))));
+        assertEquals(List.of("CounterTest@testAdd", "CounterTest@testTwice"),
+                merged.stream().map(TestResult::getTestName).toList());
+        assertTrue(merged.get(0).isSucceeded());
+    }
+
+    @Test
+    void testChangeOutsideOfMethodsShouldRunEveryTest() {
+        List<String> fieldChanged = String.join("\n", parentCodes)
+                .replace("int count = 0;", "int count = 1;")
+                .lines().toList();
+        List<String> bothChanged = String.join("\n", parentCodes)
+                .replace("a - b", "a + b")
+                .replace("a * 2", "a + a")
+                .lines().toList();
+
+        assertNull(RegressionTestSelector.select(parentCodes, parentResults, fieldChanged));
+        assertNull(RegressionTestSelector.select(parentCodes, parentResults, bothChanged));
+    }
+
+    @Test
+    void testUncoveredChangeShouldNotRunAnyTest() {
+        List<TestResult> addOnlyResults = List.of(new TestResult("CounterTest@testAdd", false, List.of(5)));
+        List<String> childCodes = String.join("\n", parentCodes)
+                .replace("a * 2", "a + a")
+                .lines().toList();
+
+        RegressionTestSelector.Selection selection =
+                RegressionTestSelector.select(parentCodes, addOnlyResults, childCodes);
+
+        assertNotNull(selection);
+        assertTrue(selection.testsToRun().isEmpty());
+        assertEquals(1, selection.merge(List.of()).size());
+    }
+}
@@ -0,0 +1,76 @@
+package testsuite;
+
+import org.group10.testsuite.TestResult;
+import org.group10.testsuite.TestScheduler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSchedulerTest {
+    @TempDir
+    Path tempDir;
+
+    private final List<String> testNames = List.of("ShopTest@testSlow", "ShopTest@testStable", "ShopTest@testFragile");
+
+    private void recordHistory(TestScheduler scheduler) {
+        for (int i = 0; i < 10; i++) {
+            List<TestResult> results = new ArrayList<>();
+            results.add(new TestResult("ShopTest@testSlow", i % 2 == 0, List.of(), 10_000, 0, false, false));
+            results.add(new TestResult("ShopTest@testStable", true, List.of(), 100, 0, false, false));
+            results.add(new TestResult("ShopTest@testFragile", i % 2 == 0, List.of(), 100, 0, false, false));
+            scheduler.record(results);
+        }
+    }
+
+    @Test
+    void testLikelyFailureShouldRunFirst() {
+        TestScheduler scheduler = TestScheduler.load(tempDir.resolve("ShopTest.stats"));
+        recordHistory(scheduler);
+        scheduler.freeze();
+
+        // As fragile as the slow test, but a hundred times cheaper
+        assertEquals(List.of("ShopTest@testFragile", "ShopTest@testStable", "ShopTest@testSlow"),
+                scheduler.order(testNames, Function.identity()));
+        // A test never seen before comes first
+        assertEquals("ShopTest@testNew",
+                scheduler.order(List.of("ShopTest@testStable", "ShopTest@testNew"), Function.identity()).getFirst());
+    }
+
+    @Test
+    void testStatisticsShouldBeReloaded() throws Exception {
+        Path file = tempDir.resolve("ShopTest.stats");
+        TestScheduler scheduler = TestScheduler.load(file);
+        recordHistory(scheduler);
+        scheduler.freeze();
+        scheduler.save();
+
+        TestScheduler reloaded = TestScheduler.load(file);
+        assertEquals(scheduler.order(testNames, Function.identity()), reloaded.order(testNames, Function.identity()));
+        assertTrue(reloaded.toString().startsWith("TestScheduler tests=3"));
+    }
+
+    @Test
+    void testOrderShouldOnlyChangeBetweenGenerations() {
+        TestScheduler scheduler = TestScheduler.empty();
+        recordHistory(scheduler);
+
+        // Nothing learned until the generation starts, so the order is kept
+        assertEquals(testNames, scheduler.order(testNames, Function.identity()));
+        scheduler.freeze();
+        List<String> learnedOrder = scheduler.order(testNames, Function.identity());
+        assertNotEquals(testNames, learnedOrder);
+        recordHistory(scheduler);
+        assertEquals(learnedOrder, scheduler.order(testNames, Function.identity()));
+
+        // The next search starts from scratch again
+        scheduler.reset();
+        assertEquals(testNames, scheduler.order(testNames, Function.identity()));
+        assertTrue(scheduler.toString().endsWith("file=none"));
+    }
+}
@@ -0,0 +1,136 @@
+package testsuite;
+
+import org.group10.testsuite.TestResult;
+import org.group10.testsuite.TestWorkerPool;
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.group10.utils.instrument.CoverageTracker;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestWorkerPoolTest {
+    private final String counterCode = """
+            public class Counter {
+                int add(int a, int b) {
+                    if (a > b) {
+                        return a + b;
+                    }
+                    return b + a;
+                }
+            }
+            """;
+
+    private final String counterTestCode = """
+            import org.junit.jupiter.api.Test;
+            import static org.junit.jupiter.api.Assertions.*;
+
+            class CounterTest {
+                @Test
+                void testGreater() { assertEquals(3, new Counter().add(2, 1)); }
+
+                @Test
+                void testWrong() { assertEquals(4, new Counter().add(1, 2)); }
+            }
+            """;
+
+    private Map<String, byte[]> compile(String counter) {
+        Map<String, List<String>> sources = new LinkedHashMap<>();
+        sources.put("Counter", counter.lines().toList());
+        sources.put("CounterTest", counterTestCode.lines().toList());
+        return InMemoryJavaCompiler.compile(sources).getClasses();
+    }
+
+    private List<TestResult> run(TestWorkerPool pool, String counter) throws Exception {
+        return pool.runTests(compile(counter), false, CoverageTracker.Budget.UNLIMITED).stream()
+                .sorted(Comparator.comparing(TestResult::getTestName))
+                .toList();
+    }
+
+    @Test
+    void testWorkerShouldBeReusedThenRecycled() throws Exception {
+        try (TestWorkerPool pool = new TestWorkerPool(1, 2, 1)) {
+            for (int i = 0; i < 3; i++) {
+                List<TestResult> results = run(pool, counterCode);
+
+                assertEquals(2, results.size());
+                assertEquals("CounterTest@testGreater", results.get(0).getTestName());
+                assertTrue(results.get(0).isSucceeded());
+                assertFalse(results.get(0).getExecutedLines().isEmpty());
+                assertEquals("CounterTest@testWrong", results.get(1).getTestName());
+                assertFalse(results.get(1).isSucceeded());
+            }
+            assertEquals(2, pool.getStartedCount());
+            assertEquals(0, pool.getCrashedCount());
+        }
+    }
+
+    @Test
+    void testExitingProgramShouldOnlyCrashTheWorker() throws Exception {
+        String exitingCode = counterCode.replace("if (a > b) {", "System.exit(1);\n        if (a > b) {");
+        try (TestWorkerPool pool = new TestWorkerPool(1, 10, 1)) {
+            List<TestResult> results = run(pool, exitingCode);
+
+            assertEquals(2, results.size());
+            assertFalse(results.get(0).isSucceeded());
+            assertFalse(results.get(1).isSucceeded());
+            assertEquals(1, pool.getCrashedCount());
+
+            // The next program gets a new worker
+            assertTrue(run(pool, counterCode).get(0).isSucceeded());
+            assertEquals(2, pool.getStartedCount());
+        }
+    }
+
+    @Test
+    void testWorkerDyingAfterAnsweringShouldNotBeReused() throws Exception {
+        // The worker answers, then exits while idle
+        String dyingCode = counterCode.replace("if (a > b) {", """
+                new Thread(() -> {
+                            try {
+                                Thread.sleep(200);
+                            } catch (InterruptedException e) {
+                                return;
+                            }
+                            System.exit(1);
+                        }).start();
+                        if (a > b) {""");
+        try (TestWorkerPool pool = new TestWorkerPool(1, 10, 1)) {
+            assertTrue(run(pool, dyingCode).get(0).isSucceeded());
+            Thread.sleep(2000);
+
+            // The next program gets a new worker instead of crashing on the dead one
+            List<TestResult> results = run(pool, counterCode);
+            assertTrue(results.get(0).isSucceeded());
+            assertFalse(results.get(1).isSucceeded());
+            assertEquals(0, pool.getCrashedCount());
+            assertEquals(2, pool.getStartedCount());
+        }
+    }
+
+    @Test
+    void testRecycledWorkerShouldExitDespiteLeakedThreads() throws Exception {
+        // The program leaves a non-daemon thread running forever
+        String leakingCode = counterCode.replace("if (a > b) {", """
+                new Thread(() -> {
+                            while (true) {
+                                try {
+                                    Thread.sleep(60_000);
+                                } catch (InterruptedException e) {
+                                    // Keep running
+                                }
+                            }
+                        }).start();
+                        if (a > b) {""");
+        try (TestWorkerPool pool = new TestWorkerPool(1, 1, 1)) {
+            assertTrue(run(pool, leakingCode).get(0).isSucceeded());
+
+            // The worker was recycled right after answering, and did not outlive it
+            assertEquals(0, ProcessHandle.current().children().filter(ProcessHandle::isAlive).count());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package utils;
+
+import org.group10.utils.compiler.ApiFingerprint;
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApiFingerprintTest {
+    String sourceCode = """
+            class Item {
+                static final int TAX = 2;
+                int getPrice() { return 3; }
+            }
+            public class Shop extends Item {
+                int total(int count) { return getPrice() * count; }
+            }
+            """;
+
+    String testCode = "class ShopTest { int test() { return new Shop().total(2); } }";
+
+    @Test
+    void testBodyChangeShouldKeepTheApi() {
+        Map<String, byte[]> classes = compile(sourceCode);
+        Map<String, byte[]> changedClasses = compile(sourceCode.replace("return 3;", "return 4 - 1;"));
+
+        assertEquals(ApiFingerprint.of(classes, Set.of("Shop")), ApiFingerprint.of(changedClasses, Set.of("Shop")));
+    }
+
+    @Test
+    void testApiChangeOfSuperTypeShouldBeDetected() {
+        Map<String, byte[]> classes = compile(sourceCode);
+        Map<String, byte[]> changedSignature = compile(sourceCode.replace("int getPrice()", "public int getPrice()"));
+        Map<String, byte[]> changedConstant = compile(sourceCode.replace("TAX = 2", "TAX = 3"));
+
+        assertNotEquals(ApiFingerprint.of(classes, Set.of("Shop")), ApiFingerprint.of(changedSignature, Set.of("Shop")));
+        assertNotEquals(ApiFingerprint.of(classes, Set.of("Shop")), ApiFingerprint.of(changedConstant, Set.of("Shop")));
+    }
+
+    @Test
+    void testReferencedClassesShouldIncludeTheTestedClass() {
+        Map<String, List<String>> sources = new LinkedHashMap<>();
+        sources.put("Shop", sourceCode.lines().toList());
+        sources.put("ShopTest", List.of(testCode));
+        Map<String, byte[]> classes = InMemoryJavaCompiler.compile(sources).getClasses();
+
+        Set<String> referenced = ApiFingerprint.referencedClasses(List.of(classes.get("ShopTest")));
+
+        assertTrue(referenced.contains("Shop"));
+        assertFalse(referenced.contains("Item"));
+    }
+
+    private Map<String, byte[]> compile(String source) {
+        return InMemoryJavaCompiler.compile(Map.of("Shop", source.lines().toList())).getClasses();
+    }
+}
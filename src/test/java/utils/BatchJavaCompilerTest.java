@@ -0,0 +1,70 @@
+package utils;
+
+import org.group10.utils.compiler.BatchJavaCompiler;
+import org.group10.utils.compiler.CompilationResult;
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.group10.utils.instrument.InstrumentingClassLoader;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchJavaCompilerTest {
+    String sourceCode = """
+            import java.util.function.IntBinaryOperator;
+            public class IntCalculator {
+                private final IntBinaryOperator adder = (a, b) -> a + b;
+                public int add(int a, int b) {
+                    return adder.applyAsInt(a, b);
+                }
+            }
+            """;
+
+    String brokenSourceCode = """
+            public class IntCalculator {
+                public int add(int a, int b) {
+                    return a + c;
+                }
+            }
+            """;
+
+    @Test
+    void testBrokenCandidateShouldNotBlockTheOthers() throws Exception {
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+        List<String> brokenSource = Arrays.asList(brokenSourceCode.split("\\R"));
+        List<String> subtractSource = Arrays.asList(sourceCode.replace("a + b", "a - b").split("\\R"));
+
+        List<CompilationResult> results = BatchJavaCompiler.compile(List.of(
+                Map.of("IntCalculator", source),
+                Map.of("IntCalculator", brokenSource),
+                Map.of("IntCalculator", subtractSource)
+        ));
+
+        assertTrue(results.get(0).isSuccessful());
+        assertFalse(results.get(1).isCompilable("IntCalculator"));
+        assertTrue(results.get(2).isSuccessful());
+        assertEquals(invokeAdd(results.get(0)), 5);
+        assertEquals(invokeAdd(results.get(2)), -1);
+    }
+
+    @Test
+    void testBatchShouldKeepTheClassesAndLinesOfASingleCompilation() {
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+        CompilationResult batched = BatchJavaCompiler.compile(List.of(Map.of("IntCalculator", source))).getFirst();
+        CompilationResult single = InMemoryJavaCompiler.compile(Map.of("IntCalculator", source));
+
+        assertEquals(single.getClasses().keySet(), batched.getClasses().keySet());
+        assertEquals(single.getClasses().get("IntCalculator").length, batched.getClasses().get("IntCalculator").length);
+    }
+
+    private int invokeAdd(CompilationResult result) throws Exception {
+        InstrumentingClassLoader loader = new InstrumentingClassLoader();
+        result.getClasses().forEach(loader::addClass);
+        Class<?> calculatorClass = loader.loadClass("IntCalculator");
+        Object calculator = calculatorClass.getConstructor().newInstance();
+        return (int) calculatorClass.getMethod("add", int.class, int.class).invoke(calculator, 2, 3);
+    }
+}
@@ -0,0 +1,139 @@
+package utils;
+
+import org.group10.testsuite.TestResult;
+import org.group10.utils.cache.BytecodeCache;
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BytecodeCacheTest {
+    private String compileToKey(String code) {
+        return BytecodeCache.key(InMemoryJavaCompiler.compile(Map.of("Adder", code.lines().toList())).getClasses());
+    }
+
+    @Test
+    void testEquivalentSourcesShouldShareTheKey() {
+        String code = """
+                public class Adder {
+                    int add(int a, int b) { return a + b; }
+                }
+                """;
+        String reformatted = """
+                public class Adder {
+                    int add(int a,int b) { return (a + b); }
+                }
+                """;
+        String movedLine = """
+                public class Adder {
+
+                    int add(int a, int b) { return a + b; }
+                }
+                """;
+
+        assertEquals(compileToKey(code), compileToKey(reformatted));
+        // The line numbers are part of the key, as the coverage of the tests depends on them
+        assertNotEquals(compileToKey(code), compileToKey(movedLine));
+        assertNotEquals(compileToKey(code), compileToKey(code.replace("a + b", "a - b")));
+    }
+
+    @Test
+    void testConcurrentRequestsShouldRunTheTestsOnce() throws Exception {
+        BytecodeCache cache = new BytecodeCache(10);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<TestResult> expected = List.of(new TestResult("AdderTest@testAdd", true, List.of(2)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<List<TestResult>>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return cache.getTestResults("key", () -> {
+                        runs.incrementAndGet();
+                        release.await();
+                        return expected;
+                    });
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor));
+        }
+        // Every other request waits for the one running the tests
+        while (cache.getSharedCount() < 3) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        for (CompletableFuture<List<TestResult>> future : futures) {
+            assertEquals("AdderTest@testAdd", future.join().getFirst().getTestName());
+        }
+        assertEquals(1, runs.get());
+        assertSame(cache.peekTestResults("key"), futures.getFirst().join());
+        executor.shutdown();
+    }
+
+    @Test
+    void testFailedRunShouldBeRetried() throws Exception {
+        BytecodeCache cache = new BytecodeCache(10);
+
+        assertThrows(IllegalStateException.class, () -> cache.getTestResults("key", () -> {
+            throw new IllegalStateException("no test runner");
+        }));
+        assertNull(cache.peekTestResults("key"));
+        assertTrue(cache.getTestResults("key", List::of).isEmpty());
+    }
+
+    @Test
+    void testUncacheableRunShouldNotBeKept() throws Exception {
+        BytecodeCache cache = new BytecodeCache(10);
+        List<TestResult> clockTimedOut = List.of(
+                TestResult.clockTimedOut("AdderTest@testAdd"));
+
+        assertEquals(clockTimedOut, cache.getTestResults("key", () -> clockTimedOut,
+                results -> results.stream().noneMatch(TestResult::isClockTimedOut)));
+        assertNull(cache.peekTestResults("key"));
+        assertTrue(cache.getTestResults("key", List::of).isEmpty());
+        assertNotNull(cache.peekTestResults("key"));
+    }
+
+    @Test
+    void testEvictionShouldSkipTheRunsInFlight() throws Exception {
+        BytecodeCache cache = new BytecodeCache(2);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<TestResult>> inFlight = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cache.getTestResults("running", () -> {
+                    release.await();
+                    return List.of();
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (!cache.toString().contains("misses=1")) {
+            Thread.sleep(10);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            cache.getTestResults("done" + i, List::of);
+        }
+        // The least recently used completed entries are evicted instead of the eldest one
+        assertTrue(cache.toString().startsWith("BytecodeCache entries=2,"));
+        assertNull(cache.peekTestResults("done1"));
+        assertNotNull(cache.peekTestResults("done2"));
+
+        release.countDown();
+        inFlight.join();
+        assertNotNull(cache.peekTestResults("running"));
+    }
+}
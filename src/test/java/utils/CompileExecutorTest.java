@@ -0,0 +1,60 @@
+package utils;
+
+import org.group10.utils.compiler.CompileExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompileExecutorTest {
+    @Test
+    void testFullQueueShouldRunTasksOnTheCaller() throws Exception {
+        try (CompileExecutor executor = new CompileExecutor(1, 1)) {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+
+            // The only worker is busy, and the queue holds one more task
+            futures.add(executor.submit(() -> {
+                started.countDown();
+                await(release);
+                return Thread.currentThread().getName();
+            }));
+            started.await();
+            futures.add(executor.submit(() -> Thread.currentThread().getName()));
+            futures.add(executor.submit(() -> Thread.currentThread().getName()));
+
+            assertTrue(futures.get(2).isDone());
+            assertEquals(Thread.currentThread().getName(), futures.get(2).join());
+            assertEquals(1, executor.getMaxQueueDepth());
+
+            release.countDown();
+            assertTrue(CompileExecutor.await(futures.get(0)).startsWith("compile-worker-"));
+            assertTrue(CompileExecutor.await(futures.get(1)).startsWith("compile-worker-"));
+        }
+    }
+
+    @Test
+    void testExceptionShouldBeRethrownOnAwait() {
+        try (CompileExecutor executor = new CompileExecutor(2)) {
+            CompletableFuture<Boolean> future = executor.submit(() -> {
+                throw new IllegalStateException("no compiler");
+            });
+
+            assertThrows(IllegalStateException.class, () -> CompileExecutor.await(future));
+            assertEquals(2, executor.getWorkers());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package utils;
+
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.group10.utils.instrument.CoverageInstrumenter;
+import org.group10.utils.instrument.CoverageTracker;
+import org.group10.utils.instrument.InstrumentingClassLoader;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoverageInstrumenterTest {
+    private final List<String> sources = """
+            public class Parity {
+                private final int offset;
+
+                public Parity() {
+                    offset = 0;
+                }
+
+                public boolean isEven(int n) {
+                    try {
+                        return new Checker().check(n + offset);
+                    } catch (IllegalArgumentException e) {
+                        return false;
+                    }
+                }
+
+                static class Checker {
+                    boolean check(int n) {
+                        if (n < 0) {
+                            throw new IllegalArgumentException();
+                        }
+                        return n % 2 == 0;
+                    }
+                }
+            }
+            """.lines().toList();
+
+    private List<Integer> coverageOf(Class<?> parity, int n) throws Exception {
+        CoverageTracker.reset();
+        Object instance = parity.getConstructor().newInstance();
+        parity.getMethod("isEven", int.class).invoke(instance, n);
+        List<Integer> executedLines = CoverageTracker.getExecutedLines();
+        CoverageTracker.reset();
+        return executedLines;
+    }
+
+    @Test
+    void testProbesShouldRecordTheExecutedLinesOfEveryThread() throws Exception {
+        Map<String, byte[]> classes = InMemoryJavaCompiler.compile(Map.of("Parity", sources)).getClasses();
+        InstrumentingClassLoader loader = new InstrumentingClassLoader();
+        for (Map.Entry<String, byte[]> compiledClass : classes.entrySet()) {
+            loader.addClass(compiledClass.getKey(), CoverageInstrumenter.instrument(compiledClass.getValue(), true));
+        }
+        Class<?> parity = loader.loadClass("Parity");
+
+        // The lines of both classes, in line order, and the handler only when reached
+        assertEquals(List.of(4, 5, 6, 10, 16, 18, 21), coverageOf(parity, 2));
+        assertEquals(List.of(4, 5, 6, 10, 11, 12, 16, 18, 19), coverageOf(parity, -1));
+
+        // Every thread has its own probes
+        CompletableFuture<List<Integer>> other = CompletableFuture.supplyAsync(() -> {
+            try {
+                return coverageOf(parity, -1);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(List.of(4, 5, 6, 10, 16, 18, 21), coverageOf(parity, 3));
+        assertEquals(List.of(4, 5, 6, 10, 11, 12, 16, 18, 19), other.get());
+    }
+}
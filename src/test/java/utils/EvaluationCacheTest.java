@@ -0,0 +1,120 @@
+package utils;
+
+import org.group10.testsuite.TestResult;
+import org.group10.utils.cache.EvaluationCache;
+import org.group10.utils.compiler.CompilationResult;
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluationCacheTest {
+    String sourceCode = """
+            public class IntCalculator {
+                public int add(int a, int b) {
+                    return a + b;
+                }
+            }
+            """;
+
+    // Same program as sourceCode, but with blank lines
+    String spacedSourceCode = """
+            public class IntCalculator {
+            
+                public int add(int a, int b) {
+            
+                    return a + b;
+                }
+            }
+            """;
+
+    @Test
+    void testCacheShouldCountHitsAndMisses() {
+        EvaluationCache cache = new EvaluationCache(EvaluationCache.DEFAULT_MAX_SIZE_IN_BYTES);
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+
+        assertNull(cache.getCompilationResult("IntCalculator", source));
+        cache.putCompilationResult("IntCalculator", source, InMemoryJavaCompiler.compile(Map.of("IntCalculator", source)));
+        assertNotNull(cache.getCompilationResult("IntCalculator", source));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testBlankLinesShouldShareEntryWithTranslatedLines() {
+        EvaluationCache cache = new EvaluationCache(EvaluationCache.DEFAULT_MAX_SIZE_IN_BYTES);
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+        List<String> spacedSource = Arrays.asList(spacedSourceCode.split("\\R"));
+
+        cache.putTestResults("IntCalculator", source, List.of(new TestResult("IntCalculatorTest@testAdd", true, List.of(1, 3))));
+        List<TestResult> results = cache.getTestResults("IntCalculator", spacedSource);
+
+        assertNotNull(results);
+        assertTrue(results.getFirst().isSucceeded());
+        assertEquals(List.of(1, 5), results.getFirst().getExecutedLines());
+    }
+
+    @Test
+    void testTranslatedClassShouldMatchFreshCompilation() {
+        EvaluationCache cache = new EvaluationCache(EvaluationCache.DEFAULT_MAX_SIZE_IN_BYTES);
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+        List<String> spacedSource = Arrays.asList(spacedSourceCode.split("\\R"));
+
+        cache.putCompilationResult("IntCalculator", source, InMemoryJavaCompiler.compile(Map.of("IntCalculator", source)));
+        CompilationResult cached = cache.getCompilationResult("IntCalculator", spacedSource);
+        CompilationResult fresh = InMemoryJavaCompiler.compile(Map.of("IntCalculator", spacedSource));
+
+        assertArrayEquals(fresh.getClasses().get("IntCalculator"), cached.getClasses().get("IntCalculator"));
+    }
+
+    @Test
+    void testEntriesShouldSurviveOnDisk(@TempDir Path cacheDir) {
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+        EvaluationCache cache = new EvaluationCache(EvaluationCache.DEFAULT_MAX_SIZE_IN_BYTES, cacheDir);
+        cache.putCompilationResult("IntCalculator", source, InMemoryJavaCompiler.compile(Map.of("IntCalculator", source)));
+        cache.putTestResults("IntCalculator", source, List.of(new TestResult("IntCalculatorTest@testAdd", false, List.of(3))));
+
+        EvaluationCache newCache = new EvaluationCache(EvaluationCache.DEFAULT_MAX_SIZE_IN_BYTES, cacheDir);
+        CompilationResult result = newCache.getCompilationResult("IntCalculator", source);
+        List<TestResult> testResults = newCache.getTestResults("IntCalculator", source);
+
+        assertTrue(result.isSuccessful());
+        assertTrue(result.getClasses().containsKey("IntCalculator"));
+        assertFalse(testResults.getFirst().isSucceeded());
+        assertEquals(List.of(3), testResults.getFirst().getExecutedLines());
+        assertEquals(1, newCache.getDiskHitCount());
+    }
+
+    @Test
+    void testCompileVerdictShouldBeCached(@TempDir Path cacheDir) {
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+        EvaluationCache cache = new EvaluationCache(EvaluationCache.DEFAULT_MAX_SIZE_IN_BYTES, cacheDir);
+        assertNull(cache.getCompilable("IntCalculator", source));
+
+        cache.putCompilable("IntCalculator", source, true);
+        EvaluationCache newCache = new EvaluationCache(EvaluationCache.DEFAULT_MAX_SIZE_IN_BYTES, cacheDir);
+
+        assertTrue(newCache.getCompilable("IntCalculator", source));
+        assertNull(newCache.getCompilationResult("IntCalculator", source));
+    }
+
+    @Test
+    void testCacheShouldEvictWhenFull() {
+        EvaluationCache cache = new EvaluationCache(1);
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+        List<String> otherSource = Arrays.asList(sourceCode.replace("a + b", "a - b").split("\\R"));
+
+        cache.putCompilationResult("IntCalculator", source, InMemoryJavaCompiler.compile(Map.of("IntCalculator", source)));
+        cache.putCompilationResult("IntCalculator", otherSource, InMemoryJavaCompiler.compile(Map.of("IntCalculator", otherSource)));
+
+        assertNull(cache.getCompilationResult("IntCalculator", source));
+        assertNotNull(cache.getCompilationResult("IntCalculator", otherSource));
+    }
+}
@@ -0,0 +1,106 @@
+package utils;
+
+import org.group10.utils.compiler.CompilationResult;
+import org.group10.utils.compiler.CompilerService;
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryJavaCompilerTest {
+    String sourceCode = """
+            public class IntCalculator {
+                public int add(int a, int b) {
+                    return a + b;
+                }
+            
+                class Helper {
+                }
+            }
+            """;
+
+    String brokenSourceCode = """
+            public class IntCalculator {
+                public int add(int a, int b) {
+                    return a + c;
+                }
+            }
+            """;
+
+    @Test
+    void testCompileShouldReturnAllClasses() throws Exception {
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+        CompilationResult result = InMemoryJavaCompiler.compile(Map.of("IntCalculator", source));
+        Map<String, byte[]> classes = result.getClasses();
+
+        assertTrue(result.isSuccessful());
+        assertEquals(2, classes.size());
+        assertTrue(classes.containsKey("IntCalculator"));
+        assertTrue(classes.containsKey("IntCalculator$Helper"));
+        assertTrue(classes.get("IntCalculator").length > 0);
+    }
+
+    @Test
+    void testCompileShouldFailOnBrokenSource() {
+        List<String> source = Arrays.asList(brokenSourceCode.split("\\R"));
+        CompilationResult result = InMemoryJavaCompiler.compile(Map.of("IntCalculator", source));
+
+        assertFalse(result.isSuccessful());
+        assertFalse(result.isCompilable("IntCalculator"));
+        assertTrue(result.getClasses().isEmpty());
+        assertFalse(result.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    void testErrorsShouldBeAttributedToTheirSource() {
+        Map<String, List<String>> sources = new LinkedHashMap<>();
+        sources.put("IntCalculator", Arrays.asList(sourceCode.split("\\R")));
+        sources.put("IntCalculatorTest", List.of("class IntCalculatorTest { int x = new IntCalculator().sub(1, 2); }"));
+        CompilationResult result = InMemoryJavaCompiler.compile(sources);
+
+        assertFalse(result.isSuccessful());
+        assertTrue(result.isCompilable("IntCalculator"));
+        assertFalse(result.isCompilable("IntCalculatorTest"));
+    }
+
+    @Test
+    void testCompileShouldOnlySeeJUnitOnTheClasspath() {
+        Map<String, List<String>> sources = new LinkedHashMap<>();
+        sources.put("IntCalculator", Arrays.asList(sourceCode.split("\\R")));
+        sources.put("IntCalculatorTest", List.of(
+                "import org.junit.jupiter.api.Test;",
+                "class IntCalculatorTest { @Test void test() { org.group10.utils.Randomness.getRandom(); } }"
+        ));
+        CompilationResult result = InMemoryJavaCompiler.compile(sources);
+
+        assertTrue(result.isCompilable("IntCalculator"));
+        assertFalse(result.isCompilable("IntCalculatorTest"));
+    }
+
+    @Test
+    void testWarmCompilationsShouldBeRecorded() {
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+        InMemoryJavaCompiler.compile(Map.of("IntCalculator", source));
+        long compileCount = CompilerService.getInstance().getCompileCount();
+
+        InMemoryJavaCompiler.compile(Map.of("IntCalculator", source));
+
+        assertEquals(compileCount + 1, CompilerService.getInstance().getCompileCount());
+    }
+
+    @Test
+    void testCheckShouldGiveTheSameVerdictAsCompile() {
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+        List<String> brokenSource = Arrays.asList(brokenSourceCode.split("\\R"));
+        List<String> unparsableSource = List.of("public class IntCalculator {", "    public int add(int a, int b) {");
+
+        assertTrue(InMemoryJavaCompiler.check(Map.of("IntCalculator", source)));
+        assertFalse(InMemoryJavaCompiler.check(Map.of("IntCalculator", brokenSource)));
+        assertFalse(InMemoryJavaCompiler.check(Map.of("IntCalculator", unparsableSource)));
+    }
+}
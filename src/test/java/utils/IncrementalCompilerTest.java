@@ -0,0 +1,87 @@
+package utils;
+
+import org.group10.utils.compiler.CompilationResult;
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.group10.utils.compiler.IncrementalCompiler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalCompilerTest {
+    String sourceCode = """
+            class Item {
+                int price = 3;
+
+                int getPrice() {
+                    return price;
+                }
+            }
+
+            public class Shop {
+                int total(Item item, int count) {
+                    return item.getPrice() * count;
+                }
+            }
+            """;
+
+    String testCode = """
+            class ShopTest {
+                int test() {
+                    return new Shop().total(new Item(), 2);
+                }
+            }
+            """;
+
+    @Test
+    void testOnlyChangedTypesShouldBeRecompiled() {
+        List<String> parentCodes = Arrays.asList(sourceCode.split("\\R"));
+        List<String> codes = Arrays.asList(sourceCode
+                .replace("return price;", "int result = price;\n        return result;")
+                .split("\\R"));
+        CompilationResult parentResult = compileWithTest(parentCodes);
+
+        CompilationResult result = IncrementalCompiler.compile("Shop", parentCodes, parentResult, codes);
+        CompilationResult expected = compileWithTest(codes);
+
+        assertNotNull(result);
+        assertTrue(result.isSuccessful());
+        assertEquals(expected.getClasses().keySet(), result.getClasses().keySet());
+        for (String className : expected.getClasses().keySet()) {
+            assertArrayEquals(expected.getClasses().get(className), result.getClasses().get(className), className);
+        }
+        assertSame(parentResult.getClasses().get("ShopTest"), result.getClasses().get("ShopTest"));
+    }
+
+    @Test
+    void testApiChangeShouldFallBack() {
+        List<String> parentCodes = Arrays.asList(sourceCode.split("\\R"));
+        List<String> codes = Arrays.asList(sourceCode.replace("int getPrice()", "long getPrice()").split("\\R"));
+        CompilationResult parentResult = compileWithTest(parentCodes);
+
+        assertNull(IncrementalCompiler.compile("Shop", parentCodes, parentResult, codes));
+    }
+
+    @Test
+    void testErrorInChangedTypeShouldBeReported() {
+        List<String> parentCodes = Arrays.asList(sourceCode.split("\\R"));
+        List<String> codes = Arrays.asList(sourceCode.replace("return price;", "return prize;").split("\\R"));
+        CompilationResult parentResult = compileWithTest(parentCodes);
+
+        CompilationResult result = IncrementalCompiler.compile("Shop", parentCodes, parentResult, codes);
+
+        assertNotNull(result);
+        assertFalse(result.isCompilable("Shop"));
+    }
+
+    private CompilationResult compileWithTest(List<String> codes) {
+        Map<String, List<String>> sources = new LinkedHashMap<>();
+        sources.put("Shop", codes);
+        sources.put("ShopTest", Arrays.asList(testCode.split("\\R")));
+        return InMemoryJavaCompiler.compile(sources);
+    }
+}
@@ -0,0 +1,68 @@
+package utils;
+
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.group10.utils.instrument.InstrumentingClassLoader;
+import org.group10.utils.instrument.SharedClassLoader;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedClassLoaderTest {
+    private final Map<String, List<String>> sources = Map.of(
+            "Gauge", """
+                    public class Gauge {
+                        int read() { return 42; }
+                    }
+                    """.lines().toList(),
+            "GaugeTest", """
+                    class GaugeTest {
+                        int check() { return new Gauge().read() + RangeHelperTest.clamp(1); }
+                    }
+                    """.lines().toList(),
+            "RangeHelperTest", """
+                    class RangeHelperTest {
+                        static final int MAX = 10;
+                        static int clamp(int value) { return Math.min(value, MAX); }
+                    }
+                    """.lines().toList(),
+            "CounterHelperTest", """
+                    class CounterHelperTest {
+                        static int calls = 0;
+                    }
+                    """.lines().toList());
+
+    private InstrumentingClassLoader newLoader(Map<String, byte[]> classes, Set<String> shared) {
+        InstrumentingClassLoader loader = new InstrumentingClassLoader(SharedClassLoader.getInstance());
+        for (Map.Entry<String, byte[]> compiledClass : classes.entrySet()) {
+            if (!shared.contains(compiledClass.getKey())) {
+                loader.addClass(compiledClass.getKey(), compiledClass.getValue());
+            }
+        }
+        return loader;
+    }
+
+    @Test
+    void testIndependentTestClassesShouldBeLoadedOnce() throws Exception {
+        Map<String, byte[]> classes = InMemoryJavaCompiler.compile(new HashMap<>(sources)).getClasses();
+        Map<String, byte[]> testClasses = new LinkedHashMap<>(classes);
+        testClasses.remove("Gauge");
+
+        Set<String> shared = SharedClassLoader.getInstance().share(testClasses, Set.of("Gauge"));
+        // GaugeTest uses the program, and CounterHelperTest has static state
+        assertEquals(Set.of("RangeHelperTest"), shared);
+
+        InstrumentingClassLoader first = newLoader(classes, shared);
+        InstrumentingClassLoader second = newLoader(classes, shared);
+        assertSame(first.loadClass("RangeHelperTest"), second.loadClass("RangeHelperTest"));
+        assertSame(SharedClassLoader.getInstance(), first.loadClass("RangeHelperTest").getClassLoader());
+        assertNotSame(first.loadClass("GaugeTest"), second.loadClass("GaugeTest"));
+        assertNotSame(first.loadClass("CounterHelperTest"), second.loadClass("CounterHelperTest"));
+        assertSame(Test.class, first.loadClass(Test.class.getName()));
+    }
+}
@@ -0,0 +1,52 @@
+package utils;
+
+import org.group10.utils.compiler.InMemoryJavaCompiler;
+import org.group10.utils.instrument.SharedStateDetector;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedStateDetectorTest {
+    @Test
+    void testConstantsShouldNotBeSharedState() {
+        String source = """
+                enum Unit { PIECE, KILO }
+                public class Shop {
+                    static final int TAX = 2;
+                    static final String NAME = "shop";
+                    private final java.util.List<Integer> items = new java.util.ArrayList<>();
+                    int total(Unit unit) {
+                        items.add(TAX);
+                        return unit == Unit.KILO ? NAME.length() : items.size();
+                    }
+                }
+                """;
+
+        assertFalse(SharedStateDetector.sharesStaticState(compile(source).values()));
+    }
+
+    @Test
+    void testStaticStateShouldBeDetected() {
+        String counter = """
+                public class Shop {
+                    static int count;
+                    int next() { return ++count; }
+                }
+                """;
+        String mutableConstant = """
+                public class Shop {
+                    static final java.util.List<Integer> ITEMS = new java.util.ArrayList<>();
+                    int add(int item) { ITEMS.add(item); return ITEMS.size(); }
+                }
+                """;
+
+        assertTrue(SharedStateDetector.sharesStaticState(compile(counter).values()));
+        assertTrue(SharedStateDetector.sharesStaticState(compile(mutableConstant).values()));
+    }
+
+    private Map<String, byte[]> compile(String source) {
+        return InMemoryJavaCompiler.compile(Map.of("Shop", source.lines().toList())).getClasses();
+    }
+}
@@ -0,0 +1,54 @@
+package utils;
+
+import org.group10.utils.compiler.SyntacticPreScreen;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SyntacticPreScreenTest {
+    String sourceCode = """
+            public class IntCalculator {
+                // A comment with an unbalanced brace {
+                private String symbols = "({[";
+                private char close = '}';
+                private String help = \"""
+                        )]}
+                        \""";
+
+                public int add(int a, int b) {
+                    return a + b;
+                }
+            }
+            """;
+
+    @Test
+    void testValidSourceShouldBeAccepted() {
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+
+        assertTrue(SyntacticPreScreen.accepts(source));
+    }
+
+    @Test
+    void testSplicedSourceShouldBeRejected() {
+        List<String> source = Arrays.asList(sourceCode.split("\\R"));
+        List<String> unbalanced = source.subList(0, source.size() - 1);
+        List<String> splitDeclaration = List.of(
+                "public class IntCalculator {",
+                "    public int add(int a, int b) {",
+                "        return a +",
+                "    public int sub(int a, int b) {",
+                "        return a - b;",
+                "    }",
+                "    }",
+                "}"
+        );
+        long rejectedCount = SyntacticPreScreen.getRejectedCount();
+
+        assertFalse(SyntacticPreScreen.accepts(unbalanced));
+        assertFalse(SyntacticPreScreen.accepts(splitDeclaration));
+        assertEquals(rejectedCount + 2, SyntacticPreScreen.getRejectedCount());
+    }
+}